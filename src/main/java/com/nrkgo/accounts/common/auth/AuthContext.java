@@ -0,0 +1,73 @@
+package com.nrkgo.accounts.common.auth;
+
+import com.nrkgo.accounts.model.User;
+
+import java.util.function.Function;
+
+/**
+ * Per-request authentication context: the session token, the user it
+ * resolves to, and the active organization.
+ *
+ * Created by AuthContextResolver and stored as a request attribute, so every
+ * handler, argument and service call in the same request shares one session
+ * lookup. User and org are resolved lazily on first access and memoized.
+ * Not thread-safe; it lives only as long as the request.
+ */
+public class AuthContext {
+
+    public static final String REQUEST_ATTRIBUTE = AuthContext.class.getName();
+
+    private final String token;
+    private final String orgIdCookie;
+    private final Function<String, User> userLoader;
+    private final OrgIdLoader orgIdLoader;
+
+    private boolean userResolved;
+    private User user;
+    private boolean orgIdResolved;
+    private Long orgId;
+
+    AuthContext(String token, String orgIdCookie, Function<String, User> userLoader, OrgIdLoader orgIdLoader) {
+        this.token = token;
+        this.orgIdCookie = orgIdCookie;
+        this.userLoader = userLoader;
+        this.orgIdLoader = orgIdLoader;
+    }
+
+    /** Raw user_session cookie value, or null if absent. */
+    public String getToken() {
+        return token;
+    }
+
+    /** Authenticated user, or null if the session is missing/invalid/expired. */
+    public User getUser() {
+        if (!userResolved) {
+            user = (token != null) ? userLoader.apply(token) : null;
+            userResolved = true;
+        }
+        return user;
+    }
+
+    public boolean isAuthenticated() {
+        return getUser() != null;
+    }
+
+    /**
+     * Active organization: the ORG_ID cookie when the user is a member of
+     * that org, otherwise the user's default organization. Null when
+     * unauthenticated or the user has no memberships.
+     */
+    public Long getOrgId() {
+        if (!orgIdResolved) {
+            User current = getUser();
+            orgId = (current != null) ? orgIdLoader.load(current, orgIdCookie) : null;
+            orgIdResolved = true;
+        }
+        return orgId;
+    }
+
+    @FunctionalInterface
+    interface OrgIdLoader {
+        Long load(User user, String orgIdCookie);
+    }
+}
@@ -0,0 +1,140 @@
+package com.nrkgo.accounts.common.auth;
+
+import com.nrkgo.accounts.common.cache.OrgMembershipCache;
+import com.nrkgo.accounts.model.User;
+import com.nrkgo.accounts.service.UserService;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single place where a request is authenticated.
+ *
+ * Reads the user_session and ORG_ID cookies once, builds an AuthContext and
+ * caches it as a request attribute. Controllers receive it as a method
+ * argument, either the whole AuthContext or just the User via
+ * {@code @CurrentUser}. Registered in WebConfig.
+ *
+ * Also the one place auth overhead is measured: see getStats().
+ */
+@Component
+public class AuthContextResolver implements HandlerMethodArgumentResolver {
+
+    public static final String SESSION_COOKIE = "user_session";
+    public static final String ORG_ID_COOKIE = "ORG_ID";
+
+    private final UserService userService;
+    private final OrgMembershipCache orgMembershipCache;
+
+    private final AtomicLong contextsCreated = new AtomicLong();
+    private final AtomicLong contextsReused = new AtomicLong();
+    private final AtomicLong userLookups = new AtomicLong();
+    private final AtomicLong userLookupNanos = new AtomicLong();
+    private final AtomicLong orgLookups = new AtomicLong();
+    private final AtomicLong orgLookupNanos = new AtomicLong();
+
+    public AuthContextResolver(UserService userService, OrgMembershipCache orgMembershipCache) {
+        this.userService = userService;
+        this.orgMembershipCache = orgMembershipCache;
+    }
+
+    /**
+     * Returns the AuthContext for this request, creating it on first call.
+     */
+    public AuthContext resolve(HttpServletRequest request) {
+        Object existing = request.getAttribute(AuthContext.REQUEST_ATTRIBUTE);
+        if (existing instanceof AuthContext) {
+            contextsReused.incrementAndGet();
+            return (AuthContext) existing;
+        }
+
+        String token = null;
+        String orgIdCookie = null;
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (SESSION_COOKIE.equals(cookie.getName())) {
+                    token = cookie.getValue();
+                } else if (ORG_ID_COOKIE.equals(cookie.getName())) {
+                    orgIdCookie = cookie.getValue();
+                }
+            }
+        }
+
+        AuthContext context = new AuthContext(token, orgIdCookie, this::loadUser, this::loadOrgId);
+        request.setAttribute(AuthContext.REQUEST_ATTRIBUTE, context);
+        contextsCreated.incrementAndGet();
+        return context;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return AuthContext.class.equals(type)
+                || (User.class.equals(type) && parameter.hasParameterAnnotation(CurrentUser.class));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        if (request == null)
+            return null;
+
+        AuthContext context = resolve(request);
+        return AuthContext.class.equals(parameter.getParameterType()) ? context : context.getUser();
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = userLookups.get();
+        long orgs = orgLookups.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("contexts_created", contextsCreated.get());
+        stats.put("contexts_reused", contextsReused.get());
+        stats.put("user_lookups", lookups);
+        stats.put("user_lookup_avg_micros", lookups == 0 ? 0 : userLookupNanos.get() / lookups / 1000);
+        stats.put("org_lookups", orgs);
+        stats.put("org_lookup_avg_micros", orgs == 0 ? 0 : orgLookupNanos.get() / orgs / 1000);
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private User loadUser(String token) {
+        long start = System.nanoTime();
+        try {
+            return userService.getUserBySession(token);
+        } finally {
+            userLookups.incrementAndGet();
+            userLookupNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private Long loadOrgId(User user, String orgIdCookie) {
+        Long requested = null;
+        if (orgIdCookie != null) {
+            try {
+                requested = Long.parseLong(orgIdCookie);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            // Cookie org only if the user is a member; else default org, else first membership
+            return orgMembershipCache.resolveOrgId(user.getId(), requested);
+        } finally {
+            orgLookups.incrementAndGet();
+            orgLookupNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.nrkgo.accounts.common.auth;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated User into a controller method parameter.
+ *
+ * Resolved once per request by AuthContextResolver. The value is null when
+ * the request has no valid user_session cookie, so handlers keep returning
+ * their own 401 response.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
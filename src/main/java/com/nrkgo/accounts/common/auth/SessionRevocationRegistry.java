@@ -0,0 +1,101 @@
+package com.nrkgo.accounts.common.auth;
+
+import com.nrkgo.accounts.common.cache.SessionCache;
+import com.nrkgo.accounts.model.UserSession;
+import com.nrkgo.accounts.repository.UserSessionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked session IDs for signed (stateless) session tokens.
+ *
+ * Loaded from user_sessions (status=0, not yet expired) at startup, then
+ * refreshed incrementally by modified_time. Entries drop out once the session
+ * would have expired anyway, so the set stays small.
+ *
+ * Staleness: a revocation on this node applies immediately (markRevoked). One
+ * made on another node applies here within revocation-refresh-ms plus the
+ * duration of one refresh query. The refresh runs on its own
+ * sessionRevocationScheduler thread (SchedulingConfig), so reaper, outbox or
+ * backfill runs on the shared scheduler do not extend that bound.
+ *
+ * Inert in opaque mode: revocation there is just status=0 in the DB row.
+ */
+@Component
+public class SessionRevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionRevocationRegistry.class);
+
+    // Re-read this much history on every refresh to tolerate clock skew between nodes
+    private static final long OVERLAP_MILLIS = 60_000L;
+
+    private final UserSessionRepository userSessionRepository;
+    private final SignedSessionTokenCodec tokenCodec;
+    private final SessionCache sessionCache;
+
+    // sessionId -> expireTime
+    private final ConcurrentHashMap<Long, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long highWaterMark = 0L;
+
+    public SessionRevocationRegistry(UserSessionRepository userSessionRepository,
+            SignedSessionTokenCodec tokenCodec,
+            SessionCache sessionCache) {
+        this.userSessionRepository = userSessionRepository;
+        this.tokenCodec = tokenCodec;
+        this.sessionCache = sessionCache;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (tokenCodec.isSignedMode()) {
+            refresh();
+            log.info("Session revocation registry loaded: {} revoked sessions", revoked.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.revocation-refresh-ms:5000}", scheduler = "sessionRevocationScheduler")
+    public void refresh() {
+        if (!tokenCodec.isSignedMode())
+            return;
+
+        long now = System.currentTimeMillis();
+        long since = Math.max(0L, highWaterMark - OVERLAP_MILLIS);
+        List<UserSession> changed = userSessionRepository
+                .findByStatusAndModifiedTimeGreaterThanAndExpireTimeGreaterThan(0, since, now);
+
+        long maxSeen = highWaterMark;
+        for (UserSession session : changed) {
+            if (revoked.put(session.getId(), session.getExpireTime()) == null) {
+                // Revoked on another node: drop any cached resolution here too
+                sessionCache.evictSession(session.getId());
+            }
+            if (session.getModifiedTime() != null && session.getModifiedTime() > maxSeen) {
+                maxSeen = session.getModifiedTime();
+            }
+        }
+        highWaterMark = maxSeen;
+
+        revoked.values().removeIf(expireTime -> expireTime <= now);
+    }
+
+    public boolean isRevoked(long sessionId) {
+        return revoked.containsKey(sessionId);
+    }
+
+    /** Records a local revocation immediately, ahead of the next refresh. */
+    public void markRevoked(Long sessionId, Long expireTime) {
+        if (tokenCodec.isSignedMode() && sessionId != null && expireTime != null) {
+            revoked.put(sessionId, expireTime);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
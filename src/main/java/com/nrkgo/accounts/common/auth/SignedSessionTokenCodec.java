@@ -0,0 +1,131 @@
+package com.nrkgo.accounts.common.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed session tokens for
+ * app.session.mode=signed.
+ *
+ * Token format: base64url("userId:sessionId:expireTime") + "." +
+ * base64url(hmac). Verification is pure CPU: no database or cache lookup.
+ * Revocation is checked separately against SessionRevocationRegistry.
+ *
+ * In the default opaque mode this bean is inert and verify() always returns
+ * null, so callers fall back to the DB-backed lookup.
+ */
+@Component
+public class SignedSessionTokenCodec {
+
+    public static final String MODE_OPAQUE = "opaque";
+    public static final String MODE_SIGNED = "signed";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean signedMode;
+    private final SecretKeySpec keySpec;
+    private final ThreadLocal<Mac> macs;
+
+    public SignedSessionTokenCodec(@Value("${app.session.mode:opaque}") String mode,
+            @Value("${app.session.signing-key:}") String signingKey) {
+        this.signedMode = MODE_SIGNED.equalsIgnoreCase(mode.trim());
+        if (signedMode && (signingKey == null || signingKey.trim().length() < 32)) {
+            throw new IllegalStateException(
+                    "app.session.signing-key must be at least 32 characters when app.session.mode=signed");
+        }
+        this.keySpec = signedMode
+                ? new SecretKeySpec(signingKey.trim().getBytes(StandardCharsets.UTF_8), ALGORITHM)
+                : null;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public boolean isSignedMode() {
+        return signedMode;
+    }
+
+    public String issue(Long userId, Long sessionId, Long expireTime) {
+        if (!signedMode) {
+            throw new IllegalStateException("Signed session tokens are disabled (app.session.mode=opaque)");
+        }
+        byte[] payload = (userId + ":" + sessionId + ":" + expireTime).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Returns the verified claims, or null if signed mode is off or the token
+     * is not a well-formed token carrying a valid signature. Expiry is NOT
+     * checked here.
+     */
+    public Claims verify(String token) {
+        if (!signedMode || token == null)
+            return null;
+
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1 || token.indexOf('.', dot + 1) >= 0)
+            return null;
+
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature))
+                return null;
+
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3)
+                return null;
+            return new Claims(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or non-numeric payload (NumberFormatException is an IAE)
+            return null;
+        }
+    }
+
+    // --- Private helpers ---
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        if (keySpec == null)
+            return null;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    public static final class Claims {
+        private final long userId;
+        private final long sessionId;
+        private final long expireTime;
+
+        private Claims(long userId, long sessionId, long expireTime) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.expireTime = expireTime;
+        }
+
+        public long getUserId() { return userId; }
+
+        public long getSessionId() { return sessionId; }
+
+        public long getExpireTime() { return expireTime; }
+
+        public boolean isExpired(long now) {
+            return expireTime <= now;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.nrkgo.accounts.common.cache;
+
+import com.nrkgo.accounts.common.util.ETagUtils;
+import com.nrkgo.accounts.dto.InitVersionView;
+import com.nrkgo.accounts.repository.OrgUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version stamp behind the init ETags, keyed by userId.
+ *
+ * The stamp hashes the membership count/org set and the latest modified_time
+ * of the user's memberships, organizations, subscriptions and subscribed
+ * plans (one aggregate query on a miss). A hit lets /api/auth/init and
+ * /{product}/init answer If-None-Match without touching JDBC.
+ *
+ * An entry is tied to the membership list it was computed from: once
+ * OrgMembershipCache reloads that list (after evictUser or its TTL), the stamp
+ * is recomputed. Organization updates and subscription changes call
+ * evictOrg; plan definition changes call evictAll. The TTL bounds staleness
+ * for writes made on other nodes. An orgId -> userIds index, maintained with
+ * the entries, lets evictOrg touch only the org's members.
+ */
+@Component
+public class InitVersionCache {
+
+    private final OrgUserRepository orgUserRepository;
+    private final OrgMembershipCache orgMembershipCache;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by 'this'.
+    private final LinkedHashMap<Long, CachedVersion> entries;
+    // orgId -> userIds of cached entries whose memberships include the org. Guarded by 'this'.
+    private final Map<Long, Set<Long>> usersByOrg = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public InitVersionCache(OrgUserRepository orgUserRepository,
+            OrgMembershipCache orgMembershipCache,
+            @Value("${app.init-version-cache.max-size:10000}") int maxSize,
+            @Value("${app.init-version-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.orgUserRepository = orgUserRepository;
+        this.orgMembershipCache = orgMembershipCache;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedVersion> eldest) {
+                if (size() > InitVersionCache.this.maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the user's current version stamp, loading it on a miss. */
+    public String getVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        List<OrgMembershipCache.Membership> memberships = orgMembershipCache.getMemberships(userId);
+        CachedVersion entry;
+        synchronized (this) {
+            entry = entries.get(userId);
+            // Identity check: a reloaded membership list means memberships may have changed
+            if (entry != null && (entry.validUntil <= now || entry.memberships != memberships)) {
+                remove(userId);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.version;
+        }
+
+        misses.incrementAndGet();
+        InitVersionView view = orgUserRepository.findInitVersionByUserId(userId);
+        String version = ETagUtils.strongETag(view.getMembershipCount(), view.getMembershipOrgIdSum(),
+                view.getMembershipsModifiedTime(), view.getOrganizationsModifiedTime(),
+                view.getSubscriptionsModifiedTime(), view.getPlansModifiedTime());
+        if (maxSize > 0) {
+            synchronized (this) {
+                CachedVersion cached = new CachedVersion(now + ttlMillis, version, memberships);
+                CachedVersion previous = entries.put(userId, cached);
+                if (previous != null)
+                    unindex(userId, previous);
+                index(userId, cached);
+            }
+        }
+        return version;
+    }
+
+    public void evictUser(Long userId) {
+        if (userId == null)
+            return;
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(userId);
+            }
+        });
+    }
+
+    /** Evicts every user who is a member of the org. */
+    public void evictOrg(Long orgId) {
+        if (orgId == null)
+            return;
+        afterCommit(() -> {
+            synchronized (this) {
+                Set<Long> userIds = usersByOrg.get(orgId);
+                if (userIds == null)
+                    return;
+                for (Long userId : List.copyOf(userIds)) {
+                    remove(userId);
+                }
+            }
+        });
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            synchronized (this) {
+                evictions.addAndGet(entries.size());
+                entries.clear();
+                usersByOrg.clear();
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("max_size", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    // Callers hold 'this'
+    private void remove(Long userId) {
+        CachedVersion removed = entries.remove(userId);
+        if (removed != null) {
+            unindex(userId, removed);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void index(Long userId, CachedVersion entry) {
+        for (OrgMembershipCache.Membership membership : entry.memberships) {
+            usersByOrg.computeIfAbsent(membership.getOrgId(), k -> new HashSet<>()).add(userId);
+        }
+    }
+
+    private void unindex(Long userId, CachedVersion entry) {
+        for (OrgMembershipCache.Membership membership : entry.memberships) {
+            Set<Long> userIds = usersByOrg.get(membership.getOrgId());
+            if (userIds != null && userIds.remove(userId) && userIds.isEmpty())
+                usersByOrg.remove(membership.getOrgId());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class CachedVersion {
+        private final long validUntil;
+        private final String version;
+        private final List<OrgMembershipCache.Membership> memberships;
+
+        private CachedVersion(long validUntil, String version, List<OrgMembershipCache.Membership> memberships) {
+            this.validUntil = validUntil;
+            this.version = version;
+            this.memberships = memberships;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.nrkgo.accounts.common.cache;
+
+import com.nrkgo.accounts.model.OrgUser;
+import com.nrkgo.accounts.repository.OrgUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process index of org memberships: userId -> immutable list of
+ * (orgUserId, orgId, roleId, isDefault, status).
+ *
+ * Lets org context resolution and "is this user a member of org X" checks
+ * run without a query on the warm path. A miss loads from org_users once.
+ *
+ * Writers to org_users (invite, accept, claim, update/remove member) must
+ * call evictUser for the affected user. As with SessionCache, eviction runs
+ * immediately and again after commit; the TTL bounds staleness across nodes.
+ */
+@Component
+public class OrgMembershipCache {
+
+    private final OrgUserRepository orgUserRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by 'this'.
+    private final LinkedHashMap<Long, CachedMemberships> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OrgMembershipCache(OrgUserRepository orgUserRepository,
+            @Value("${app.org-membership-cache.max-size:10000}") int maxSize,
+            @Value("${app.org-membership-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.orgUserRepository = orgUserRepository;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMemberships> eldest) {
+                if (size() > OrgMembershipCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * All memberships of the user (any status), in org_users order. Never null.
+     */
+    public List<Membership> getMemberships(Long userId) {
+        if (userId == null)
+            return Collections.emptyList();
+
+        long now = System.currentTimeMillis();
+        CachedMemberships entry;
+        synchronized (this) {
+            entry = entries.get(userId);
+            if (entry != null && entry.validUntil <= now) {
+                entries.remove(userId);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.memberships;
+        }
+
+        misses.incrementAndGet();
+        List<Membership> loaded = load(userId);
+        if (maxSize > 0) {
+            synchronized (this) {
+                entries.put(userId, new CachedMemberships(now + ttlMillis, loaded));
+            }
+        }
+        return loaded;
+    }
+
+    /** Membership of the user in the org, or null if none. */
+    public Membership find(Long userId, Long orgId) {
+        if (orgId == null)
+            return null;
+        for (Membership m : getMemberships(userId)) {
+            if (orgId.equals(m.getOrgId()))
+                return m;
+        }
+        return null;
+    }
+
+    public boolean isMember(Long userId, Long orgId) {
+        return find(userId, orgId) != null;
+    }
+
+    /**
+     * Resolves the org to act in: the requested org if the user belongs to
+     * it, otherwise the default org, otherwise the first membership. Null if
+     * the user has no memberships.
+     */
+    public Long resolveOrgId(Long userId, Long requestedOrgId) {
+        List<Membership> memberships = getMemberships(userId);
+        Long firstOrgId = null;
+        Long defaultOrgId = null;
+        for (Membership m : memberships) {
+            if (requestedOrgId != null && requestedOrgId.equals(m.getOrgId()))
+                return requestedOrgId;
+            if (firstOrgId == null)
+                firstOrgId = m.getOrgId();
+            if (defaultOrgId == null && m.isDefault())
+                defaultOrgId = m.getOrgId();
+        }
+        return (defaultOrgId != null) ? defaultOrgId : firstOrgId;
+    }
+
+    public void evictUser(Long userId) {
+        if (userId == null)
+            return;
+        Runnable action = () -> {
+            synchronized (this) {
+                if (entries.remove(userId) != null)
+                    evictions.incrementAndGet();
+            }
+        };
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("max_size", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private List<Membership> load(Long userId) {
+        List<OrgUser> orgUsers = orgUserRepository.findByUserId(userId);
+        List<Membership> memberships = new ArrayList<>(orgUsers.size());
+        for (OrgUser ou : orgUsers) {
+            memberships.add(new Membership(ou.getId(), ou.getOrgId(), ou.getRoleId(),
+                    ou.getIsDefault() != null && ou.getIsDefault() == 1, ou.getStatus()));
+        }
+        return Collections.unmodifiableList(memberships);
+    }
+
+    private static final class CachedMemberships {
+        private final long validUntil;
+        private final List<Membership> memberships;
+
+        private CachedMemberships(long validUntil, List<Membership> memberships) {
+            this.validUntil = validUntil;
+            this.memberships = memberships;
+        }
+    }
+
+    public static final class Membership {
+        private final Long orgUserId;
+        private final Long orgId;
+        private final Long roleId;
+        private final boolean isDefault;
+        private final Integer status;
+
+        private Membership(Long orgUserId, Long orgId, Long roleId, boolean isDefault, Integer status) {
+            this.orgUserId = orgUserId;
+            this.orgId = orgId;
+            this.roleId = roleId;
+            this.isDefault = isDefault;
+            this.status = status;
+        }
+
+        public Long getOrgUserId() { return orgUserId; }
+
+        public Long getOrgId() { return orgId; }
+
+        public Long getRoleId() { return roleId; }
+
+        public boolean isDefault() { return isDefault; }
+
+        public Integer getStatus() { return status; }
+    }
+}
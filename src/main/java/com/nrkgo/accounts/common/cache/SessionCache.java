@@ -0,0 +1,189 @@
+package com.nrkgo.accounts.common.cache;
+
+import com.nrkgo.accounts.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-process cache of resolved sessions, keyed by the user_session cookie
+ * token.
+ *
+ * A hit returns a copy of the cached User snapshot without touching JDBC.
+ * Entries expire at whichever comes first: the session's own expireTime or
+ * the configured TTL (which bounds staleness across nodes).
+ *
+ * Writers (revokeSession, logout, password reset, updateUser) must evict.
+ * Eviction runs immediately and again after the surrounding transaction
+ * commits, so a concurrent reader cannot re-cache pre-commit state.
+ */
+@Component
+public class SessionCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by 'this'.
+    private final LinkedHashMap<String, CachedSession> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SessionCache(@Value("${app.session-cache.max-size:10000}") int maxSize,
+            @Value("${app.session-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+                if (size() > SessionCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached user for this token, or null on a miss or
+     * when the entry has expired.
+     */
+    public User get(String token) {
+        if (token == null)
+            return null;
+        long now = System.currentTimeMillis();
+        CachedSession entry;
+        synchronized (this) {
+            entry = entries.get(token);
+            if (entry != null && entry.validUntil <= now) {
+                entries.remove(token);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copyOf(entry.user);
+    }
+
+    public void put(String token, Long sessionId, Long sessionExpireTime, User user) {
+        if (token == null || user == null || maxSize <= 0)
+            return;
+        long validUntil = Math.min(sessionExpireTime, System.currentTimeMillis() + ttlMillis);
+        CachedSession entry = new CachedSession(sessionId, user.getId(), validUntil, copyOf(user));
+        synchronized (this) {
+            entries.put(token, entry);
+        }
+    }
+
+    public void evictToken(String token) {
+        if (token == null)
+            return;
+        afterCommit(() -> {
+            synchronized (this) {
+                if (entries.remove(token) != null)
+                    evictions.incrementAndGet();
+            }
+        });
+    }
+
+    public void evictSession(Long sessionId) {
+        if (sessionId == null)
+            return;
+        afterCommit(() -> removeIf(e -> sessionId.equals(e.sessionId)));
+    }
+
+    public void evictUser(Long userId) {
+        if (userId == null)
+            return;
+        afterCommit(() -> removeIf(e -> userId.equals(e.userId)));
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("max_size", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private void removeIf(Predicate<CachedSession> predicate) {
+        synchronized (this) {
+            Iterator<CachedSession> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static User copyOf(User source) {
+        User copy = new User();
+        copy.setId(source.getId());
+        copy.setEmail(source.getEmail());
+        copy.setPassword(source.getPassword());
+        copy.setFirstName(source.getFirstName());
+        copy.setLastName(source.getLastName());
+        copy.setMobileNumber(source.getMobileNumber());
+        copy.setCountry(source.getCountry());
+        copy.setTimeZone(source.getTimeZone());
+        copy.setStatus(source.getStatus());
+        copy.setSource(source.getSource());
+        copy.setSourceId(source.getSourceId());
+        copy.setProfileId(source.getProfileId());
+        copy.setMfaEnabled(source.getMfaEnabled());
+        copy.setCreatedBy(source.getCreatedBy());
+        copy.setCreatedTime(source.getCreatedTime());
+        copy.setModifiedBy(source.getModifiedBy());
+        copy.setModifiedTime(source.getModifiedTime());
+        return copy;
+    }
+
+    private static final class CachedSession {
+        private final Long sessionId;
+        private final Long userId;
+        private final long validUntil;
+        private final User user;
+
+        private CachedSession(Long sessionId, Long userId, long validUntil, User user) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.validUntil = validUntil;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.nrkgo.accounts.common.mail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A template parsed once into alternating static segments and {{name}}
+ * placeholders.
+ *
+ * Rendering is a straight walk over pre-split char arrays: no regex, no
+ * intermediate strings. Every placeholder value is HTML-escaped, which is
+ * safe both in text and in quoted attribute values (href='...').
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final char[][] segments;
+    private final int[] slots;
+    private final int staticLength;
+
+    private CompiledTemplate(String name, char[][] segments, int[] slots) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (char[] segment : segments)
+            length += segment.length;
+        this.staticLength = length;
+    }
+
+    /**
+     * Parses the source. Each placeholder must be one of parameterNames; its
+     * position in that list is the index of the value passed to render().
+     */
+    public static CompiledTemplate compile(String name, String source, String... parameterNames) {
+        List<String> params = Arrays.asList(parameterNames);
+        List<char[]> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                segments.add(source.substring(pos).toCharArray());
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0)
+                throw new IllegalStateException("Unterminated placeholder in email template '" + name + "'");
+
+            String param = source.substring(open + OPEN.length(), close).trim();
+            int index = params.indexOf(param);
+            if (index < 0)
+                throw new IllegalStateException(
+                        "Unknown placeholder {{" + param + "}} in email template '" + name + "'");
+
+            segments.add(source.substring(pos, open).toCharArray());
+            slots.add(index);
+            pos = close + CLOSE.length();
+        }
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++)
+            slotArray[i] = slots.get(i);
+        return new CompiledTemplate(name, segments.toArray(new char[0][]), slotArray);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Appends the rendered template to out. Values are positional, matching
+     * the parameterNames given to compile(); null renders as empty.
+     */
+    public void render(StringBuilder out, String... values) {
+        out.ensureCapacity(out.length() + staticLength + 256);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            int slot = slots[i];
+            escapeHtml(out, slot < values.length ? values[slot] : null);
+        }
+        out.append(segments[slots.length]);
+    }
+
+    // --- Private helpers ---
+
+    private static void escapeHtml(StringBuilder out, String value) {
+        if (value == null)
+            return;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '&': replacement = "&amp;"; break;
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: continue;
+            }
+            out.append(value, start, i).append(replacement);
+            start = i + 1;
+        }
+        out.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,84 @@
+package com.nrkgo.accounts.common.mail;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transactional email bodies, loaded from
+ * app.mail.templates.location (classpath:templates/email/ by default) and
+ * compiled once at startup.
+ *
+ * Point the location at a file: directory to change the copy without a
+ * rebuild; a restart picks the new files up. A template with a placeholder
+ * this class does not supply fails startup rather than sending broken mail.
+ */
+@Component
+public class EmailTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplates.class);
+
+    // Buffers that grew past this are dropped rather than pinned per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final CompiledTemplate verification;
+    private final CompiledTemplate invitation;
+    private final CompiledTemplate passwordReset;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    public EmailTemplates(ResourceLoader resourceLoader,
+            @Value("${app.mail.templates.location:classpath:templates/email/}") String location) {
+        String base = location.endsWith("/") ? location : location + "/";
+        this.verification = load(resourceLoader, base, "verification.html",
+                "verification_link");
+        this.invitation = load(resourceLoader, base, "invitation.html",
+                "invite_link", "org_name", "inviter_name");
+        this.passwordReset = load(resourceLoader, base, "password-reset.html",
+                "reset_link", "user_name");
+        log.info("Email templates compiled from {}", base);
+    }
+
+    public String verification(String verificationLink) {
+        return render(verification, verificationLink);
+    }
+
+    public String invitation(String inviteLink, String orgName, String inviterName) {
+        return render(invitation, inviteLink, orgName, inviterName);
+    }
+
+    public String passwordReset(String resetLink, String userName) {
+        return render(passwordReset, resetLink, userName);
+    }
+
+    // --- Private helpers ---
+
+    private String render(CompiledTemplate template, String... values) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.render(buffer, values);
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER)
+            buffers.remove();
+        return html;
+    }
+
+    private static CompiledTemplate load(ResourceLoader resourceLoader, String base, String fileName,
+            String... parameterNames) {
+        Resource resource = resourceLoader.getResource(base + fileName);
+        try (InputStream in = resource.getInputStream()) {
+            String source = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            return CompiledTemplate.compile(fileName, source, parameterNames);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load email template " + base + fileName, e);
+        }
+    }
+}
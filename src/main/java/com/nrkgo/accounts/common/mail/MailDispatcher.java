@@ -0,0 +1,320 @@
+package com.nrkgo.accounts.common.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound mail pipeline: bounded in-memory queue drained by background
+ * workers.
+ *
+ * - submit() enqueues only after the surrounding transaction commits (and
+ *   drops the mail on rollback), so request threads never wait on SMTP while
+ *   holding a DB connection.
+ * - Workers take up to batch-size ready messages and hand them to
+ *   JavaMailSender.send(MimeMessage...), which delivers the whole batch over
+ *   one SMTP connection.
+ * - Failed messages are re-queued with exponential backoff up to
+ *   max-attempts, then counted as failed.
+ * - When the queue is full new mail is dropped (and counted) rather than
+ *   blocking the caller.
+ *
+ * The queue is in-memory: mail still queued at shutdown is lost.
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final JavaMailSender javaMailSender;
+    private final String fromEmail;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final int workerCount;
+
+    private final DelayQueue<QueuedMail> queue = new DelayQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchSendNanos = new AtomicLong();
+    private final AtomicLong deliveryLatencyMillis = new AtomicLong();
+    private volatile long lastDeliveryLatencyMillis;
+
+    public MailDispatcher(JavaMailSender javaMailSender,
+            @Value("${spring.mail.username}") String fromEmail,
+            @Value("${app.mail.queue-capacity:10000}") int capacity,
+            @Value("${app.mail.batch-size:20}") int batchSize,
+            @Value("${app.mail.max-attempts:5}") int maxAttempts,
+            @Value("${app.mail.retry-base-ms:2000}") long retryBaseMillis,
+            @Value("${app.mail.retry-max-ms:300000}") long retryMaxMillis,
+            @Value("${app.mail.workers:1}") int workerCount) {
+        this.javaMailSender = javaMailSender;
+        this.fromEmail = fromEmail;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMillis = Math.max(0, retryBaseMillis);
+        this.retryMaxMillis = Math.max(this.retryBaseMillis, retryMaxMillis);
+        this.workerCount = Math.max(1, workerCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "mail-dispatcher-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (depth.get() > 0) {
+            log.warn("Mail dispatcher stopped with {} undelivered messages in queue", depth.get());
+        }
+    }
+
+    /**
+     * Queues the mail for delivery once the current transaction commits, or
+     * right away when there is no transaction.
+     */
+    public void submit(OutboundMail mail) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(mail);
+                }
+            });
+        } else {
+            enqueue(mail);
+        }
+    }
+
+    /**
+     * Sends the given mails over a single SMTP connection. Returns the
+     * failures keyed by index into {@code mails}; an empty map means every
+     * message was accepted by the server.
+     */
+    public Map<Integer, Exception> sendBatch(List<OutboundMail> mails) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(mails.size());
+        List<Integer> indexes = new ArrayList<>(mails.size());
+
+        for (int i = 0; i < mails.size(); i++) {
+            try {
+                messages.add(toMimeMessage(mails.get(i)));
+                indexes.add(i);
+            } catch (MessagingException e) {
+                failures.put(i, e);
+            }
+        }
+        if (messages.isEmpty())
+            return failures;
+
+        long start = System.nanoTime();
+        try {
+            javaMailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int j = 0; j < messages.size(); j++) {
+                if (failedMessages.isEmpty()) {
+                    failures.put(indexes.get(j), e);
+                } else if (failedMessages.containsKey(messages.get(j))) {
+                    failures.put(indexes.get(j), failedMessages.get(messages.get(j)));
+                }
+            }
+        } catch (MailException e) {
+            // Connection/authentication failure: nothing in the batch was sent
+            for (Integer index : indexes) {
+                failures.put(index, e);
+            }
+        } finally {
+            batches.incrementAndGet();
+            batchSendNanos.addAndGet(System.nanoTime() - start);
+        }
+        return failures;
+    }
+
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    public Map<String, Object> getStats() {
+        long sentCount = sent.get();
+        long batchCount = batches.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queue_depth", depth.get());
+        stats.put("queue_capacity", capacity);
+        stats.put("enqueued", enqueued.get());
+        stats.put("sent", sentCount);
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("batches", batchCount);
+        stats.put("avg_batch_send_ms", batchCount == 0 ? 0 : batchSendNanos.get() / batchCount / 1_000_000);
+        stats.put("avg_delivery_latency_ms", sentCount == 0 ? 0 : deliveryLatencyMillis.get() / sentCount);
+        stats.put("last_delivery_latency_ms", lastDeliveryLatencyMillis);
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private void enqueue(OutboundMail mail) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            log.error("Mail queue full ({}), dropping email to: {}", capacity, mail.getTo());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        queue.offer(new QueuedMail(mail, now, 1, now));
+        enqueued.incrementAndGet();
+    }
+
+    private void runWorker() {
+        while (running) {
+            List<QueuedMail> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            depth.addAndGet(-batch.size());
+
+            try {
+                deliver(batch);
+            } catch (RuntimeException e) {
+                log.error("Mail dispatcher batch failed unexpectedly", e);
+            }
+        }
+    }
+
+    private void deliver(List<QueuedMail> batch) {
+        List<OutboundMail> mails = new ArrayList<>(batch.size());
+        for (QueuedMail queued : batch) {
+            mails.add(queued.mail);
+        }
+
+        Map<Integer, Exception> failures = sendBatch(mails);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < batch.size(); i++) {
+            QueuedMail queued = batch.get(i);
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                long latency = now - queued.enqueuedAt;
+                sent.incrementAndGet();
+                deliveryLatencyMillis.addAndGet(latency);
+                lastDeliveryLatencyMillis = latency;
+            } else {
+                retryOrFail(queued, failure, now);
+            }
+        }
+        log.info("Mail batch delivered: {} sent, {} failed", batch.size() - failures.size(), failures.size());
+    }
+
+    private void retryOrFail(QueuedMail queued, Exception failure, long now) {
+        if (queued.attempt >= maxAttempts) {
+            failed.incrementAndGet();
+            log.error("Giving up on email to: {} after {} attempts", queued.mail.getTo(), queued.attempt, failure);
+            return;
+        }
+
+        long backoff = Math.min(retryMaxMillis, retryBaseMillis << Math.min(queued.attempt - 1, 20));
+        log.warn("Email to: {} failed (attempt {}), retrying in {} ms: {}",
+                queued.mail.getTo(), queued.attempt, backoff, failure.getMessage());
+        depth.incrementAndGet();
+        queue.offer(new QueuedMail(queued.mail, queued.enqueuedAt, queued.attempt + 1, now + backoff));
+        retried.incrementAndGet();
+    }
+
+    private MimeMessage toMimeMessage(OutboundMail mail) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, mail.hasAttachment(),
+                StandardCharsets.UTF_8.name());
+
+        helper.setTo(mail.getTo());
+        helper.setFrom(fromEmail);
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), mail.isHtml());
+        if (mail.hasAttachment()) {
+            helper.addAttachment(mail.getAttachmentName(), new ByteArrayResource(mail.getAttachmentData()));
+        }
+        return message;
+    }
+
+    private static final class QueuedMail implements Delayed {
+        private final OutboundMail mail;
+        private final long enqueuedAt;
+        private final int attempt;
+        private final long readyAt;
+
+        private QueuedMail(OutboundMail mail, long enqueuedAt, int attempt, long readyAt) {
+            this.mail = mail;
+            this.enqueuedAt = enqueuedAt;
+            this.attempt = attempt;
+            this.readyAt = readyAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(readyAt, ((QueuedMail) other).readyAt);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nrkgo.accounts.common.mail;
+
+/**
+ * Immutable description of one outgoing email, queued by MailDispatcher.
+ *
+ * Holds only plain data (no MimeMessage) so it can be rebuilt for each
+ * delivery attempt. Attachment is optional.
+ */
+public final class OutboundMail {
+
+    private final String to;
+    private final String subject;
+    private final String body;
+    private final boolean html;
+    private final String attachmentName;
+    private final byte[] attachmentData;
+
+    public OutboundMail(String to, String subject, String body, boolean html) {
+        this(to, subject, body, html, null, null);
+    }
+
+    public OutboundMail(String to, String subject, String body, boolean html,
+            String attachmentName, byte[] attachmentData) {
+        this.to = to;
+        this.subject = subject;
+        this.body = body;
+        this.html = html;
+        this.attachmentName = attachmentName;
+        this.attachmentData = attachmentData;
+    }
+
+    public String getTo() { return to; }
+
+    public String getSubject() { return subject; }
+
+    public String getBody() { return body; }
+
+    public boolean isHtml() { return html; }
+
+    public String getAttachmentName() { return attachmentName; }
+
+    public byte[] getAttachmentData() { return attachmentData; }
+
+    public boolean hasAttachment() {
+        return attachmentName != null && attachmentData != null;
+    }
+}
@@ -20,6 +20,7 @@ public class ApiResponse<T> {
         private int perPage;
         private long count; // Elements on current page
         private Integer nextPage;
+        private String nextCursor; // Keyset listings: pass back as ?cursor= for the next page
         private boolean moreRecords;
 
         public int getPerPage() {
@@ -46,6 +47,14 @@ public class ApiResponse<T> {
             this.nextPage = nextPage;
         }
 
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
+
         public boolean isMoreRecords() {
             return moreRecords;
         }
@@ -141,4 +150,21 @@ public class ApiResponse<T> {
         response.setPageable(info);
         return response;
     }
+
+    public static <T> ApiResponse<java.util.List<T>> cursorSuccess(String message, CursorPage<T> page, int perPage) {
+        ApiResponse<java.util.List<T>> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setData(page.getItems());
+
+        // No total_pages: keyset pages never count the whole listing
+        PageableInfo info = new PageableInfo();
+        info.setPerPage(perPage);
+        info.setCount(page.getItems().size());
+        info.setMoreRecords(page.hasNext());
+        info.setNextCursor(page.getNextCursor());
+
+        response.setPageable(info);
+        return response;
+    }
 }
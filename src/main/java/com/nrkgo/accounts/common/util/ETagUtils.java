@@ -0,0 +1,52 @@
+package com.nrkgo.accounts.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+public final class ETagUtils {
+
+    private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder().withoutPadding();
+
+    private ETagUtils() {
+    }
+
+    /**
+     * Builds a strong ETag ("..." quoted) from the version parts of a
+     * response. Parts are hashed, so ids and timestamps are not exposed.
+     */
+    public static String strongETag(Object... parts) {
+        StringBuilder sb = new StringBuilder(64);
+        for (Object part : parts) {
+            sb.append(part).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + base64Encoder.encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * True if the If-None-Match header value matches the ETag. Follows the
+     * weak comparison that RFC 9110 prescribes for If-None-Match: "*", lists,
+     * and W/ prefixes are honoured.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*"))
+                return true;
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+}
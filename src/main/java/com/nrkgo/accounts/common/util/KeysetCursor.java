@@ -0,0 +1,72 @@
+package com.nrkgo.accounts.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination: the sort value and id of the last row
+ * of a page. The next page asks for rows strictly after that pair, so every
+ * page is an index range scan no matter how deep, and no COUNT(*) is needed.
+ * The sort value is optional for listings ordered by id alone; a row whose
+ * sort value is NULL gets a cursor that says so (afterNullSortValue), since
+ * NULLs need their own predicate.
+ */
+public class KeysetCursor {
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private final Long sortValue;
+    private final long id;
+    private final boolean nullSortValue;
+
+    public KeysetCursor(Long sortValue, long id) {
+        this(sortValue, id, false);
+    }
+
+    private KeysetCursor(Long sortValue, long id, boolean nullSortValue) {
+        this.sortValue = sortValue;
+        this.id = id;
+        this.nullSortValue = nullSortValue;
+    }
+
+    /** Cursor after a row whose sort value is NULL; encoded as ":id". */
+    public static KeysetCursor afterNullSortValue(long id) {
+        return new KeysetCursor(null, id, true);
+    }
+
+    public Long getSortValue() {
+        return sortValue;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /** True for afterNullSortValue cursors, as opposed to id-only ones. */
+    public boolean isNullSortValue() {
+        return nullSortValue;
+    }
+
+    public String encode() {
+        String raw = (sortValue != null) ? sortValue + ":" + id : nullSortValue ? ":" + id : Long.toString(id);
+        return encoder.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a null or blank cursor (first page); throws on a malformed one. */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return null;
+        try {
+            String raw = new String(decoder.decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            if (colon < 0)
+                return new KeysetCursor(null, Long.parseLong(raw));
+            if (colon == 0)
+                return afterNullSortValue(Long.parseLong(raw.substring(1)));
+            return new KeysetCursor(Long.parseLong(raw.substring(0, colon)), Long.parseLong(raw.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
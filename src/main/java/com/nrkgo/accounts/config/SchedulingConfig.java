@@ -0,0 +1,45 @@
+package com.nrkgo.accounts.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Schedulers for @Scheduled jobs.
+ *
+ * taskScheduler is the shared default (reaper, backfill, registry polls).
+ * Jobs whose timing other code depends on, or that can block on a remote
+ * server, name their own single-thread scheduler via
+ * @Scheduled(scheduler = ...) so they neither wait behind nor stall the rest.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.pool-size:4}") int poolSize) {
+        return scheduler("scheduling-", Math.max(1, poolSize));
+    }
+
+    // Bounds signed-session revocation staleness; see SessionRevocationRegistry
+    @Bean
+    public ThreadPoolTaskScheduler sessionRevocationScheduler() {
+        return scheduler("session-revocation-", 1);
+    }
+
+    // SMTP batches can block for the mail timeouts; keep them off the shared pool
+    @Bean
+    public ThreadPoolTaskScheduler mailOutboxScheduler() {
+        return scheduler("mail-outbox-", 1);
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+}
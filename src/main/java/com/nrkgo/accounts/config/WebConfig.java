@@ -1,22 +1,39 @@
 package com.nrkgo.accounts.config;
 
+import com.nrkgo.accounts.common.auth.AuthContextResolver;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     @org.springframework.beans.factory.annotation.Value("${app.frontend.url}")
     private String frontendUrl;
 
+    private final AuthContextResolver authContextResolver;
+
+    public WebConfig(AuthContextResolver authContextResolver) {
+        this.authContextResolver = authContextResolver;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Allow all endpoints
                 .allowedOrigins(frontendUrl) // Allow Frontend
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Allow all standard methods
                 .allowedHeaders("*") // Allow all headers
+                .exposedHeaders("ETag") // Conditional GET on init endpoints
                 .allowCredentials(true) // IMPORTANT: Allow cookies
                 .maxAge(3600);
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // Injects AuthContext / @CurrentUser User into controller methods
+        resolvers.add(authContextResolver);
+    }
 }
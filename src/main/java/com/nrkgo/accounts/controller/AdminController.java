@@ -1,23 +1,62 @@
 package com.nrkgo.accounts.controller;
 
+import com.nrkgo.accounts.common.auth.AuthContextResolver;
+import com.nrkgo.accounts.common.auth.CurrentUser;
+import com.nrkgo.accounts.common.cache.InitVersionCache;
+import com.nrkgo.accounts.common.cache.OrgMembershipCache;
+import com.nrkgo.accounts.common.cache.SessionCache;
+import com.nrkgo.accounts.common.mail.MailDispatcher;
 import com.nrkgo.accounts.common.response.ApiResponse;
 import com.nrkgo.accounts.dto.UserIdRequest;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.modules.plans.admin.AdminGuard;
+import com.nrkgo.accounts.modules.plans.service.EntitlementCache;
+import com.nrkgo.accounts.modules.plans.service.FeatureFragmentCache;
+import com.nrkgo.accounts.modules.plans.service.ProductRegistry;
+import com.nrkgo.accounts.scheduler.EmailOutboxDrainer;
+import com.nrkgo.accounts.scheduler.ExpiredRecordReaper;
 import com.nrkgo.accounts.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
     private final UserService userService;
     private final AdminGuard adminGuard;
+    private final SessionCache sessionCache;
+    private final ExpiredRecordReaper expiredRecordReaper;
+    private final AuthContextResolver authContextResolver;
+    private final OrgMembershipCache orgMembershipCache;
+    private final MailDispatcher mailDispatcher;
+    private final EmailOutboxDrainer emailOutboxDrainer;
+    private final EntitlementCache entitlementCache;
+    private final ProductRegistry productRegistry;
+    private final FeatureFragmentCache featureFragmentCache;
+    private final InitVersionCache initVersionCache;
 
-    public AdminController(UserService userService, AdminGuard adminGuard) {
+    public AdminController(UserService userService, AdminGuard adminGuard, SessionCache sessionCache,
+            ExpiredRecordReaper expiredRecordReaper, AuthContextResolver authContextResolver,
+            OrgMembershipCache orgMembershipCache, MailDispatcher mailDispatcher,
+            EmailOutboxDrainer emailOutboxDrainer, EntitlementCache entitlementCache,
+            ProductRegistry productRegistry, FeatureFragmentCache featureFragmentCache,
+            InitVersionCache initVersionCache) {
         this.userService = userService;
         this.adminGuard = adminGuard;
+        this.sessionCache = sessionCache;
+        this.expiredRecordReaper = expiredRecordReaper;
+        this.authContextResolver = authContextResolver;
+        this.orgMembershipCache = orgMembershipCache;
+        this.mailDispatcher = mailDispatcher;
+        this.emailOutboxDrainer = emailOutboxDrainer;
+        this.entitlementCache = entitlementCache;
+        this.productRegistry = productRegistry;
+        this.featureFragmentCache = featureFragmentCache;
+        this.initVersionCache = initVersionCache;
     }
 
     /**
@@ -29,9 +68,8 @@ public class AdminController {
      */
     @PostMapping("/users/activate")
     public ResponseEntity<ApiResponse<String>> activateUser(@RequestBody UserIdRequest request,
-            jakarta.servlet.http.HttpServletRequest httpRequest) {
+            @CurrentUser User requester) {
         try {
-            User requester = getAuthenticatedUser(httpRequest);
             if (requester == null) {
                 return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
             }
@@ -54,18 +92,31 @@ public class AdminController {
         }
     }
 
-    private User getAuthenticatedUser(jakarta.servlet.http.HttpServletRequest request) {
-        String token = null;
-        if (request.getCookies() != null) {
-            for (jakarta.servlet.http.Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
+    /**
+     * In-process cache and background job counters, for sizing and monitoring.
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics(
+            @CurrentUser User requester) {
+        if (requester == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
+        }
+        if (!adminGuard.isAdmin(requester)) {
+            return ResponseEntity.status(403)
+                    .body(ApiResponse.error("Unauthorized: Product Owner access required"));
         }
-        if (token == null)
-            return null;
-        return userService.getUserBySession(token);
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("auth", authContextResolver.getStats());
+        metrics.put("session_cache", sessionCache.getStats());
+        metrics.put("org_membership_cache", orgMembershipCache.getStats());
+        metrics.put("expired_record_reaper", expiredRecordReaper.getStats());
+        metrics.put("mail", mailDispatcher.getStats());
+        metrics.put("mail_outbox", emailOutboxDrainer.getStats());
+        metrics.put("entitlement_cache", entitlementCache.getStats());
+        metrics.put("product_registry", productRegistry.getStats());
+        metrics.put("feature_fragment_cache", featureFragmentCache.getStats());
+        metrics.put("init_version_cache", initVersionCache.getStats());
+        return ResponseEntity.ok(ApiResponse.success("Metrics fetched", metrics));
     }
 }
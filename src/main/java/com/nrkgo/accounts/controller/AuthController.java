@@ -1,12 +1,18 @@
 package com.nrkgo.accounts.controller;
 
+import com.nrkgo.accounts.common.auth.AuthContext;
+import com.nrkgo.accounts.common.cache.InitVersionCache;
 import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.common.util.ETagUtils;
 import com.nrkgo.accounts.dto.LoginRequest;
 import com.nrkgo.accounts.dto.SignupRequest;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.model.UserSession;
 import com.nrkgo.accounts.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/auth")
 public class AuthController {
     private final UserService userService;
+    private final InitVersionCache initVersionCache;
 
     @org.springframework.beans.factory.annotation.Value("${app.frontend.url}")
     private String frontendUrl;
@@ -22,8 +29,9 @@ public class AuthController {
     private String cookieDomain;
 
     // Manual Constructor for Dependency Injection
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, InitVersionCache initVersionCache) {
         this.userService = userService;
+        this.initVersionCache = initVersionCache;
     }
 
     @PostMapping("/signup")
@@ -58,7 +66,12 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logout(jakarta.servlet.http.HttpServletResponse response) {
+    public ResponseEntity<ApiResponse<String>> logout(AuthContext auth,
+            jakarta.servlet.http.HttpServletResponse response) {
+        if (auth.getToken() != null) {
+            userService.logout(auth.getToken());
+        }
+
         jakarta.servlet.http.Cookie cookie = new jakarta.servlet.http.Cookie("user_session", null);
         cookie.setHttpOnly(true);
         cookie.setSecure(false);
@@ -81,17 +94,8 @@ public class AuthController {
     }
 
     @GetMapping("/ustatus")
-    public ResponseEntity<ApiResponse<Boolean>> validateSession(jakarta.servlet.http.HttpServletRequest request) {
-        String token = null;
-        if (request.getCookies() != null) {
-            for (jakarta.servlet.http.Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
-
+    public ResponseEntity<ApiResponse<Boolean>> validateSession(AuthContext auth) {
+        String token = auth.getToken();
         if (token == null) {
             return ResponseEntity.ok(ApiResponse.success("No session cookie found", false));
         }
@@ -102,30 +106,30 @@ public class AuthController {
 
     @GetMapping("/init")
     public ResponseEntity<ApiResponse<com.nrkgo.accounts.dto.InitResponse>> init(
-            jakarta.servlet.http.HttpServletRequest request,
-            @RequestParam(name = "org_id", required = false) Long orgId) {
-
-        String token = null;
-        if (request.getCookies() != null) {
-            for (jakarta.servlet.http.Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
+            AuthContext auth,
+            @RequestParam(name = "org_id", required = false) Long orgId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        if (token == null) {
+        if (auth.getToken() == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated: No session found"));
         }
 
-        User user = userService.getUserBySession(token);
+        User user = auth.getUser();
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated: Invalid or expired session"));
         }
 
-        com.nrkgo.accounts.dto.InitResponse response = userService.getInitData(user.getId(), orgId);
-        return ResponseEntity.ok(ApiResponse.success("Initialization data fetched", response));
+        // Version check from cached stamps: a 304 costs no query and no serialization
+        String etag = ETagUtils.strongETag("init", user.getId(), user.getModifiedTime(), orgId,
+                initVersionCache.getVersion(user.getId()));
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate()).build();
+        }
+
+        com.nrkgo.accounts.dto.InitResponse response = userService.getInitData(user, orgId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success("Initialization data fetched", response));
     }
 
     @GetMapping("/verify")
@@ -1,13 +1,12 @@
 package com.nrkgo.accounts.controller;
 
+import com.nrkgo.accounts.common.auth.CurrentUser;
 import com.nrkgo.accounts.common.response.ApiResponse;
 import com.nrkgo.accounts.dto.InviteUserRequest;
 import com.nrkgo.accounts.model.Digest;
 import com.nrkgo.accounts.model.Organization;
 import com.nrkgo.accounts.service.OrgService;
-import com.nrkgo.accounts.service.UserService;
 import com.nrkgo.accounts.model.User;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,38 +16,25 @@ import org.springframework.web.bind.annotation.*;
 public class OrgController {
 
     private final OrgService orgService;
-    private final UserService userService;
 
     @org.springframework.beans.factory.annotation.Value("${app.cookie.domain:}")
     private String cookieDomain;
 
+    @org.springframework.beans.factory.annotation.Value("${app.members.default-limit:50}")
+    private int membersDefaultLimit;
+
+    @org.springframework.beans.factory.annotation.Value("${app.members.max-limit:200}")
+    private int membersMaxLimit;
+
     // Manual Constructor for Dependency Injection
-    public OrgController(OrgService orgService, UserService userService) {
+    public OrgController(OrgService orgService) {
         this.orgService = orgService;
-        this.userService = userService;
-    }
-
-    private User getAuthenticatedUser(HttpServletRequest request) {
-        String token = null;
-        if (request.getCookies() != null) {
-            for (jakarta.servlet.http.Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
-        if (token == null)
-            return null;
-        return userService.getUserBySession(token);
     }
 
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<Organization>> createOrganization(
             @Valid @RequestBody com.nrkgo.accounts.dto.CreateOrgRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -60,9 +46,7 @@ public class OrgController {
     @PutMapping
     public ResponseEntity<ApiResponse<Organization>> updateOrganization(
             @Valid @RequestBody com.nrkgo.accounts.dto.CreateOrgRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -74,9 +58,7 @@ public class OrgController {
     @PostMapping("/invite")
     public ResponseEntity<ApiResponse<Digest>> inviteUser(
             @Valid @RequestBody InviteUserRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -88,13 +70,12 @@ public class OrgController {
     @PostMapping("/accept-invite")
     public ResponseEntity<ApiResponse<Void>> acceptInvite(
             @RequestParam String token,
-            HttpServletRequest httpRequest) {
+            @CurrentUser User user) {
 
         // Note: For accept invite, user might already be logged in OR strictly just
         // claiming via token.
         // Assuming current logic just needs a Valid User ID to link.
         // If the user must be logged in to accept:
-        User user = getAuthenticatedUser(httpRequest);
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated: Please login to accept invite"));
         }
@@ -106,9 +87,7 @@ public class OrgController {
     @PostMapping("/claim-invite")
     public ResponseEntity<ApiResponse<Void>> claimInvite(
             @RequestParam Long org_id,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated: Please login to accept invite"));
         }
@@ -189,9 +168,7 @@ public class OrgController {
     @GetMapping("/invite-token")
     public ResponseEntity<ApiResponse<String>> getInviteToken(
             @RequestParam Long memberId,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -209,13 +186,24 @@ public class OrgController {
     public ResponseEntity<ApiResponse<java.util.List<com.nrkgo.accounts.dto.OrgMemberResponse>>> getOrgMembers(
             @RequestParam Long org_id,
             @RequestParam(required = false) String search,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
 
+        // Keyset flow: ?cursor= (empty for the first page), then pageable.next_cursor
+        if (cursor != null) {
+            int pageSize = (size != null && size > 0) ? Math.min(size, membersMaxLimit) : membersDefaultLimit;
+            try {
+                return ResponseEntity.ok(ApiResponse.cursorSuccess("Members fetched",
+                        orgService.getOrgMembers(org_id, user.getId(), search, cursor, pageSize), pageSize));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+            }
+        }
+
         java.util.List<com.nrkgo.accounts.dto.OrgMemberResponse> members = orgService.getOrgMembers(org_id,
                 user.getId(), search);
         return ResponseEntity.ok(ApiResponse.success("Members fetched", members));
@@ -224,9 +212,7 @@ public class OrgController {
     @PutMapping("/member")
     public ResponseEntity<ApiResponse<Void>> updateMember(
             @Valid @RequestBody com.nrkgo.accounts.dto.UpdateMemberRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -239,9 +225,7 @@ public class OrgController {
     public ResponseEntity<ApiResponse<Void>> removeMember(
             @RequestParam Long org_id,
             @RequestParam Long member_id,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -255,9 +239,7 @@ public class OrgController {
     @GetMapping("/roles")
     public ResponseEntity<ApiResponse<java.util.List<com.nrkgo.accounts.model.Role>>> getOrgRoles(
             @RequestParam Long org_id,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -268,9 +250,7 @@ public class OrgController {
     public ResponseEntity<ApiResponse<com.nrkgo.accounts.model.Role>> createRole(
             @RequestParam Long org_id,
             @Valid @RequestBody com.nrkgo.accounts.dto.RoleRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -283,9 +263,7 @@ public class OrgController {
             @PathVariable Long roleId,
             @RequestParam Long org_id,
             @Valid @RequestBody com.nrkgo.accounts.dto.RoleRequest request,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -297,9 +275,7 @@ public class OrgController {
     public ResponseEntity<ApiResponse<Void>> deleteRole(
             @PathVariable Long roleId,
             @RequestParam Long org_id,
-            HttpServletRequest httpRequest) {
-
-        User user = getAuthenticatedUser(httpRequest);
+            @CurrentUser User user) {
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
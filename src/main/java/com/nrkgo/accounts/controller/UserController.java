@@ -1,12 +1,15 @@
 package com.nrkgo.accounts.controller;
 
+import com.nrkgo.accounts.common.auth.CurrentUser;
 import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.common.util.ETagUtils;
 import com.nrkgo.accounts.dto.UpdateUserRequest;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,35 +23,27 @@ public class UserController {
         this.userService = userService;
     }
 
-    private User getAuthenticatedUser(HttpServletRequest request) {
-        String token = null;
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
-        if (token == null) return null;
-        return userService.getUserBySession(token);
-    }
-
     @GetMapping
-    public ResponseEntity<ApiResponse<User>> getUserProfile(HttpServletRequest request) {
-        User user = getAuthenticatedUser(request);
+    public ResponseEntity<ApiResponse<User>> getUserProfile(@CurrentUser User user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
-        return ResponseEntity.ok(ApiResponse.success("User profile fetched", user));
+
+        // Profile writes bump modified_time and evict the session cache
+        String etag = ETagUtils.strongETag("user", user.getId(), user.getModifiedTime());
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success("User profile fetched", user));
     }
 
     @PutMapping
     public ResponseEntity<ApiResponse<User>> updateUserProfile(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @Valid @RequestBody UpdateUserRequest updateRequest) {
-        
-        User user = getAuthenticatedUser(request);
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -58,8 +53,7 @@ public class UserController {
     }
 
     @GetMapping("/sessions")
-    public ResponseEntity<ApiResponse<java.util.List<com.nrkgo.accounts.model.UserSession>>> getSessions(HttpServletRequest request) {
-        User user = getAuthenticatedUser(request);
+    public ResponseEntity<ApiResponse<java.util.List<com.nrkgo.accounts.model.UserSession>>> getSessions(@CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -68,10 +62,8 @@ public class UserController {
 
     @DeleteMapping("/sessions")
     public ResponseEntity<ApiResponse<String>> revokeSession(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @RequestParam("session_id") Long sessionId) {
-        
-        User user = getAuthenticatedUser(request);
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
@@ -0,0 +1,25 @@
+package com.nrkgo.accounts.dto;
+
+import com.nrkgo.accounts.model.User;
+
+/**
+ * Read model for session resolution: the active, unexpired session for a
+ * cookie token joined with its user, fetched in a single query.
+ */
+public class ActiveSessionView {
+    private final Long sessionId;
+    private final Long expireTime;
+    private final User user;
+
+    public ActiveSessionView(Long sessionId, Long expireTime, User user) {
+        this.sessionId = sessionId;
+        this.expireTime = expireTime;
+        this.user = user;
+    }
+
+    public Long getSessionId() { return sessionId; }
+
+    public Long getExpireTime() { return expireTime; }
+
+    public User getUser() { return user; }
+}
@@ -0,0 +1,37 @@
+package com.nrkgo.accounts.dto;
+
+/**
+ * Read model for init ETags: counts and latest modified_time values across
+ * a user's memberships, their organizations, and those organizations'
+ * subscriptions and subscribed plans, fetched in a single query.
+ */
+public class InitVersionView {
+    private final Long membershipCount;
+    private final Long membershipOrgIdSum;
+    private final Long membershipsModifiedTime;
+    private final Long organizationsModifiedTime;
+    private final Long subscriptionsModifiedTime;
+    private final Long plansModifiedTime;
+
+    public InitVersionView(Long membershipCount, Long membershipOrgIdSum, Long membershipsModifiedTime,
+            Long organizationsModifiedTime, Long subscriptionsModifiedTime, Long plansModifiedTime) {
+        this.membershipCount = membershipCount;
+        this.membershipOrgIdSum = membershipOrgIdSum;
+        this.membershipsModifiedTime = membershipsModifiedTime;
+        this.organizationsModifiedTime = organizationsModifiedTime;
+        this.subscriptionsModifiedTime = subscriptionsModifiedTime;
+        this.plansModifiedTime = plansModifiedTime;
+    }
+
+    public Long getMembershipCount() { return membershipCount; }
+
+    public Long getMembershipOrgIdSum() { return membershipOrgIdSum; }
+
+    public Long getMembershipsModifiedTime() { return membershipsModifiedTime; }
+
+    public Long getOrganizationsModifiedTime() { return organizationsModifiedTime; }
+
+    public Long getSubscriptionsModifiedTime() { return subscriptionsModifiedTime; }
+
+    public Long getPlansModifiedTime() { return plansModifiedTime; }
+}
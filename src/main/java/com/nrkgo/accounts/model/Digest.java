@@ -10,7 +10,10 @@ import org.hibernate.annotations.CreationTimestamp;
 
 
 @Entity
-@Table(name = "digests")
+@Table(name = "digests", indexes = {
+        @Index(name = "idx_digest_entity", columnList = "entity_type, entity_id"),
+        @Index(name = "idx_digest_org_user", columnList = "org_user_id, entity_type")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,6 +30,9 @@ public class Digest extends BaseEntity {
     @Column(nullable = false)
     private String entityId; // Storing as String to accommodate various ID types if needed, or stick to Long if strict.
 
+    @Column(name = "org_user_id")
+    private Long orgUserId; // INVITE only: numeric org_users.id, so member listings join without casting entityId
+
     @Column(nullable = false, unique = true)
     private String token;
 
@@ -47,6 +53,9 @@ public class Digest extends BaseEntity {
     public String getEntityId() { return entityId; }
     public void setEntityId(String entityId) { this.entityId = entityId; }
 
+    public Long getOrgUserId() { return orgUserId; }
+    public void setOrgUserId(Long orgUserId) { this.orgUserId = orgUserId; }
+
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
 
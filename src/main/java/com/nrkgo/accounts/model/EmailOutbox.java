@@ -0,0 +1,92 @@
+package com.nrkgo.accounts.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Transactional outbox row for an outgoing email.
+ *
+ * Written in the same transaction as the digest/user it refers to, then
+ * claimed and sent by EmailOutboxDrainer. A rolled-back transaction leaves
+ * no row, so no email is ever sent for a token that does not exist.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_time"),
+        @Index(name = "idx_outbox_status_claimed", columnList = "status, claimed_until")
+})
+public class EmailOutbox extends BaseEntity {
+
+    public static final int STATUS_PENDING = 0;
+    public static final int STATUS_PROCESSING = 1;
+    public static final int STATUS_SENT = 2;
+    public static final int STATUS_FAILED = 3;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(columnDefinition = "LONGTEXT", nullable = false)
+    private String body;
+
+    @Column(name = "is_html", nullable = false)
+    private Integer isHtml; // 1: HTML, 0: plain text
+
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_time", nullable = false)
+    private Long nextAttemptTime;
+
+    @Column(name = "claimed_until")
+    private Long claimedUntil; // Set while PROCESSING; a crashed node's claim expires after this
+
+    @Column(name = "sent_time")
+    private Long sentTime;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Manual Accessors
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public Integer getIsHtml() { return isHtml; }
+    public void setIsHtml(Integer isHtml) { this.isHtml = isHtml; }
+
+    public Integer getStatus() { return status; }
+    public void setStatus(Integer status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public Long getNextAttemptTime() { return nextAttemptTime; }
+    public void setNextAttemptTime(Long nextAttemptTime) { this.nextAttemptTime = nextAttemptTime; }
+
+    public Long getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(Long claimedUntil) { this.claimedUntil = claimedUntil; }
+
+    public Long getSentTime() { return sentTime; }
+    public void setSentTime(Long sentTime) { this.sentTime = sentTime; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 
 
 @Entity
-@Table(name = "user_sessions")
+@Table(name = "user_sessions", indexes = @Index(name = "uq_session_cookie", columnList = "cookie", unique = true))
 @Data
 @Builder
 @NoArgsConstructor
@@ -1,5 +1,6 @@
 package com.nrkgo.accounts.modules.plans.admin;
 
+import com.nrkgo.accounts.common.auth.CurrentUser;
 import com.nrkgo.accounts.common.response.ApiResponse;
 import com.nrkgo.accounts.model.Organization;
 import com.nrkgo.accounts.model.User;
@@ -8,10 +9,9 @@ import com.nrkgo.accounts.modules.plans.model.Subscription;
 import com.nrkgo.accounts.modules.plans.repository.PlanRepository;
 import com.nrkgo.accounts.modules.plans.repository.SubscriptionRepository;
 import com.nrkgo.accounts.modules.plans.service.DefaultPlanService;
+import com.nrkgo.accounts.modules.plans.service.EntitlementCache;
+import com.nrkgo.accounts.modules.plans.service.PlanServiceFactory;
 import com.nrkgo.accounts.repository.OrganizationRepository;
-import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -36,21 +36,24 @@ import java.util.List;
 public class AdminPlanController {
 
     private final AdminGuard adminGuard;
-    private final UserService userService;
     private final OrganizationRepository organizationRepository;
     private final PlanRepository planRepository;
     private final SubscriptionRepository subscriptionRepository;
+    private final EntitlementCache entitlementCache;
+    private final PlanServiceFactory planServiceFactory;
 
     public AdminPlanController(AdminGuard adminGuard,
-            UserService userService,
             OrganizationRepository organizationRepository,
             PlanRepository planRepository,
-            SubscriptionRepository subscriptionRepository) {
+            SubscriptionRepository subscriptionRepository,
+            EntitlementCache entitlementCache,
+            PlanServiceFactory planServiceFactory) {
         this.adminGuard = adminGuard;
-        this.userService = userService;
         this.organizationRepository = organizationRepository;
         this.planRepository = planRepository;
         this.subscriptionRepository = subscriptionRepository;
+        this.entitlementCache = entitlementCache;
+        this.planServiceFactory = planServiceFactory;
     }
 
     // ════════════════════════════════════════════════════════════════════════
@@ -63,10 +66,8 @@ public class AdminPlanController {
      */
     @GetMapping("/list")
     public ResponseEntity<ApiResponse<List<Plan>>> listPlans(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @RequestParam Integer productCode) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -89,10 +90,8 @@ public class AdminPlanController {
     @PostMapping("/create")
     @Transactional
     public ResponseEntity<ApiResponse<Plan>> createPlan(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @RequestBody AdminPlanDefinitionRequest payload) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -118,8 +117,10 @@ public class AdminPlanController {
         plan.setStatus(1);
         plan.setCreatedTime(now);
         plan.setModifiedTime(now);
+        Plan saved = planRepository.save(plan);
+        planServiceFactory.refreshCatalog(saved.getProductCode());
 
-        return ResponseEntity.ok(ApiResponse.success("Plan created", planRepository.save(plan)));
+        return ResponseEntity.ok(ApiResponse.success("Plan created", saved));
     }
 
     /**
@@ -130,11 +131,9 @@ public class AdminPlanController {
     @PutMapping("/{planId}")
     @Transactional
     public ResponseEntity<ApiResponse<Plan>> updatePlan(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @PathVariable Long planId,
             @RequestBody AdminPlanDefinitionRequest payload) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -158,10 +157,14 @@ public class AdminPlanController {
         if (payload.getFeaturesJson() != null)
             plan.setFeaturesJson(payload.getFeaturesJson());
         plan.setModifiedTime(System.currentTimeMillis());
+        Plan saved = planRepository.save(plan);
+
+        // Free/system subscribers read live plan features
+        planServiceFactory.refreshCatalog(saved.getProductCode());
+        entitlementCache.evictProduct(saved.getProductCode());
 
         return ResponseEntity.ok(ApiResponse.success(
-                "Plan updated. Existing paid orgs are unaffected (grandfathered).",
-                planRepository.save(plan)));
+                "Plan updated. Existing paid orgs are unaffected (grandfathered).", saved));
     }
 
     /**
@@ -173,10 +176,8 @@ public class AdminPlanController {
     @DeleteMapping("/{planId}")
     @Transactional
     public ResponseEntity<ApiResponse<Void>> deprecatePlan(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @PathVariable Long planId) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -192,6 +193,7 @@ public class AdminPlanController {
         plan.setStatus(0);
         plan.setModifiedTime(System.currentTimeMillis());
         planRepository.save(plan);
+        planServiceFactory.refreshCatalog(plan.getProductCode());
 
         return ResponseEntity.ok(ApiResponse.success("Plan deprecated. Existing subscribers unaffected.", null));
     }
@@ -209,10 +211,8 @@ public class AdminPlanController {
     @PostMapping("/assign")
     @Transactional
     public ResponseEntity<ApiResponse<Subscription>> assignPlan(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @RequestBody AdminPlanRequest payload) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -280,6 +280,7 @@ public class AdminPlanController {
             newSub.setLockedFeaturesJson(lockedLimits);
             result = subscriptionRepository.save(newSub);
         }
+        entitlementCache.evictOrg(payload.getProductCode(), org.getId());
 
         String msg = isSamePlan
                 ? "Limits updated for org: " + org.getOrgName()
@@ -292,11 +293,9 @@ public class AdminPlanController {
      */
     @GetMapping("/history")
     public ResponseEntity<ApiResponse<?>> getHistory(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @RequestParam Long orgId,
             @RequestParam Integer productCode) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -308,14 +307,4 @@ public class AdminPlanController {
         return ResponseEntity.ok(ApiResponse.success("Subscription history",
                 subscriptionRepository.findByOrgIdAndProductCodeOrderByCreatedTimeDesc(orgId, productCode)));
     }
-
-    private User auth(HttpServletRequest request) {
-        if (request.getCookies() == null)
-            return null;
-        for (Cookie c : request.getCookies()) {
-            if ("user_session".equals(c.getName()))
-                return userService.getUserBySession(c.getValue());
-        }
-        return null;
-    }
 }
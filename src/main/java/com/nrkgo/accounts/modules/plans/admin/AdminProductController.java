@@ -1,12 +1,12 @@
 package com.nrkgo.accounts.modules.plans.admin;
 
+import com.nrkgo.accounts.common.auth.CurrentUser;
 import com.nrkgo.accounts.common.response.ApiResponse;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.modules.plans.model.Product;
 import com.nrkgo.accounts.modules.plans.repository.ProductRepository;
-import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
+import com.nrkgo.accounts.modules.plans.service.PlanServiceFactory;
+import com.nrkgo.accounts.modules.plans.service.ProductRegistry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -26,21 +26,23 @@ import java.util.List;
 public class AdminProductController {
 
     private final AdminGuard adminGuard;
-    private final UserService userService;
     private final ProductRepository productRepository;
+    private final PlanServiceFactory planServiceFactory;
+    private final ProductRegistry productRegistry;
 
     public AdminProductController(AdminGuard adminGuard,
-            UserService userService,
-            ProductRepository productRepository) {
+            ProductRepository productRepository,
+            PlanServiceFactory planServiceFactory,
+            ProductRegistry productRegistry) {
         this.adminGuard = adminGuard;
-        this.userService = userService;
         this.productRepository = productRepository;
+        this.planServiceFactory = planServiceFactory;
+        this.productRegistry = productRegistry;
     }
 
     // ── GET /admin/products ─────────────────────────────────────────────────
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Product>>> listProducts(HttpServletRequest request) {
-        User admin = auth(request);
+    public ResponseEntity<ApiResponse<List<Product>>> listProducts(@CurrentUser User admin) {
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -56,10 +58,8 @@ public class AdminProductController {
     @PostMapping
     @Transactional
     public ResponseEntity<ApiResponse<Product>> createProduct(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @RequestBody AdminProductRequest payload) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -85,19 +85,20 @@ public class AdminProductController {
         product.setDescription(payload.getDescription());
         product.setStatus(1);
         product.setCreatedTime(System.currentTimeMillis());
+        Product saved = productRepository.save(product);
+        productRegistry.reloadAfterCommit();
+        planServiceFactory.refreshProducts();
 
-        return ResponseEntity.ok(ApiResponse.success("Product registered", productRepository.save(product)));
+        return ResponseEntity.ok(ApiResponse.success("Product registered", saved));
     }
 
     // ── PUT /admin/products/{productCode} ───────────────────────────────────
     @PutMapping("/{productCode}")
     @Transactional
     public ResponseEntity<ApiResponse<Product>> updateProduct(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @PathVariable Integer productCode,
             @RequestBody AdminProductRequest payload) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -117,17 +118,19 @@ public class AdminProductController {
         if (payload.getDescription() != null)
             product.setDescription(payload.getDescription());
 
-        return ResponseEntity.ok(ApiResponse.success("Product updated", productRepository.save(product)));
+        Product saved = productRepository.save(product);
+        productRegistry.reloadAfterCommit();
+        planServiceFactory.refreshProducts();
+
+        return ResponseEntity.ok(ApiResponse.success("Product updated", saved));
     }
 
     // ── DELETE /admin/products/{productCode} ────────────────────────────────
     @DeleteMapping("/{productCode}")
     @Transactional
     public ResponseEntity<ApiResponse<Void>> deprecateProduct(
-            HttpServletRequest request,
+            @CurrentUser User admin,
             @PathVariable Integer productCode) {
-
-        User admin = auth(request);
         if (admin == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         try {
@@ -142,18 +145,10 @@ public class AdminProductController {
 
         product.setStatus(0); // Soft delete — preserves all subscription history
         productRepository.save(product);
+        productRegistry.reloadAfterCommit();
+        planServiceFactory.refreshProducts();
 
         return ResponseEntity.ok(ApiResponse
                 .success("Product deprecated (soft delete). All existing subscriptions are unaffected.", null));
     }
-
-    private User auth(HttpServletRequest request) {
-        if (request.getCookies() == null)
-            return null;
-        for (Cookie c : request.getCookies()) {
-            if ("user_session".equals(c.getName()))
-                return userService.getUserBySession(c.getValue());
-        }
-        return null;
-    }
 }
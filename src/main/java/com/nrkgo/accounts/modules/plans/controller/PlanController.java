@@ -1,5 +1,6 @@
 package com.nrkgo.accounts.modules.plans.controller;
 
+import com.nrkgo.accounts.common.auth.CurrentUser;
 import com.nrkgo.accounts.common.response.ApiResponse;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.modules.plans.model.Plan;
@@ -9,9 +10,6 @@ import com.nrkgo.accounts.modules.plans.repository.ProductRepository;
 import com.nrkgo.accounts.modules.plans.service.PlanService;
 import com.nrkgo.accounts.modules.plans.service.PlanServiceFactory;
 import com.nrkgo.accounts.modules.plans.service.ProductCodes;
-import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,31 +23,13 @@ public class PlanController {
     private final PlanServiceFactory planServiceFactory;
     private final PlanRepository planRepository;
     private final ProductRepository productRepository;
-    private final UserService userService;
 
     public PlanController(PlanServiceFactory planServiceFactory,
             PlanRepository planRepository,
-            ProductRepository productRepository,
-            UserService userService) {
+            ProductRepository productRepository) {
         this.planServiceFactory = planServiceFactory;
         this.planRepository = planRepository;
         this.productRepository = productRepository;
-        this.userService = userService;
-    }
-
-    private User getAuthenticatedUser(HttpServletRequest request) {
-        String token = null;
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if ("user_session".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
-        if (token == null)
-            return null;
-        return userService.getUserBySession(token);
     }
 
     /**
@@ -58,10 +38,8 @@ public class PlanController {
      */
     @GetMapping("/status")
     public ResponseEntity<ApiResponse<Subscription>> getStatus(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @RequestParam(defaultValue = "101") int productCode) {
-
-        User user = getAuthenticatedUser(request);
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -94,10 +72,8 @@ public class PlanController {
      */
     @PostMapping("/init")
     public ResponseEntity<ApiResponse<Subscription>> initFreePlan(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @RequestParam(defaultValue = "101") int productCode) {
-
-        User user = getAuthenticatedUser(request);
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -112,10 +88,8 @@ public class PlanController {
      */
     @PostMapping("/switch")
     public ResponseEntity<ApiResponse<Subscription>> switchPlan(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @RequestBody Map<String, Integer> body) {
-
-        User user = getAuthenticatedUser(request);
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -133,10 +107,8 @@ public class PlanController {
      */
     @PostMapping("/cancel")
     public ResponseEntity<ApiResponse<Void>> cancel(
-            HttpServletRequest request,
+            @CurrentUser User user,
             @RequestParam(defaultValue = "101") int productCode) {
-
-        User user = getAuthenticatedUser(request);
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
@@ -1,24 +1,25 @@
 package com.nrkgo.accounts.modules.plans.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.common.auth.CurrentUser;
+import com.nrkgo.accounts.common.cache.InitVersionCache;
 import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.common.util.ETagUtils;
 import com.nrkgo.accounts.dto.InitResponse;
 import com.nrkgo.accounts.model.Organization;
 import com.nrkgo.accounts.model.User;
 import com.nrkgo.accounts.modules.plans.dto.ProductInitResponse;
 import com.nrkgo.accounts.modules.plans.model.Product;
 import com.nrkgo.accounts.modules.plans.model.Subscription;
-import com.nrkgo.accounts.modules.plans.repository.ProductRepository;
 import com.nrkgo.accounts.modules.plans.repository.SubscriptionRepository;
+import com.nrkgo.accounts.modules.plans.service.FeatureFragmentCache;
+import com.nrkgo.accounts.modules.plans.service.ProductRegistry;
 import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 /**
  * Product-specific init endpoint.
  *
@@ -31,27 +32,30 @@ import java.util.Map;
  * - other_organizations (from existing getInitData)
  * - plan (from subscriptions table for this product + org)
  *
- * The "product" path variable is resolved to a product code via DB lookup on
- * the
- * products table (slug column). Adding a new product: just INSERT a row into
- * the products table — no Java code changes needed.
+ * The "product" path variable is resolved to a product code via
+ * ProductRegistry, an in-memory copy of the products table (slug column).
+ * Adding a new product: just INSERT a row into the products table (picked up
+ * on the next registry poll) — no Java code changes needed.
  */
 @RestController
 public class ProductInitController {
 
     private final UserService userService;
-    private final ProductRepository productRepository;
+    private final ProductRegistry productRegistry;
     private final SubscriptionRepository subscriptionRepository;
-    private final ObjectMapper objectMapper;
+    private final FeatureFragmentCache featureFragmentCache;
+    private final InitVersionCache initVersionCache;
 
     public ProductInitController(UserService userService,
-            ProductRepository productRepository,
+            ProductRegistry productRegistry,
             SubscriptionRepository subscriptionRepository,
-            ObjectMapper objectMapper) {
+            FeatureFragmentCache featureFragmentCache,
+            InitVersionCache initVersionCache) {
         this.userService = userService;
-        this.productRepository = productRepository;
+        this.productRegistry = productRegistry;
         this.subscriptionRepository = subscriptionRepository;
-        this.objectMapper = objectMapper;
+        this.featureFragmentCache = featureFragmentCache;
+        this.initVersionCache = initVersionCache;
     }
 
     /**
@@ -61,36 +65,46 @@ public class ProductInitController {
      * @param orgId   Optional. Which org context to use. Defaults to the user's
      *                default org.
      */
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    // Not @Transactional: a 304 must not borrow a JDBC connection, and the plan is fetch-joined
     @GetMapping("/{product}/init")
     public ResponseEntity<ApiResponse<ProductInitResponse>> productInit(
             @PathVariable String product,
             @RequestParam(required = false) Long orgId,
-            HttpServletRequest request) {
+            @CurrentUser User user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         // 1. Auth
-        User user = getAuthenticatedUser(request);
         if (user == null)
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
 
-        // 2. Resolve product code from slug via DB (not hardcoded Java map)
-        Product productDef = productRepository.findBySlugAndStatus(product, 1).orElse(null);
+        // 2. Resolve product code from slug via the in-memory products registry
+        Product productDef = productRegistry.findActiveBySlug(product);
         if (productDef == null) {
             return ResponseEntity.status(404).body(ApiResponse.error("Unknown product: " + product));
         }
         Integer productCode = productDef.getProductCode();
 
-        // 3. Fetch base init data (user, default org, other orgs) — reuse existing
-        // service
-        InitResponse baseInit = userService.getInitData(user.getId(), orgId);
+        // Version check from cached stamps: a 304 costs no query and no serialization
+        String etag = ETagUtils.strongETag("product-init", productCode, user.getId(), user.getModifiedTime(), orgId,
+                initVersionCache.getVersion(user.getId()));
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate()).build();
+        }
+
+        // 3. Fetch base init data (default org, other orgs) — reuse existing
+        // service. The user comes from the session; memberships are cached, so
+        // this is a single organizations query on a warm cache.
+        InitResponse baseInit = userService.getInitData(user, orgId);
 
-        // 4. Get the org's active plan for this product
+        // 4. Get the org's active plan for this product, plan fetched in the same query
         Organization defaultOrg = baseInit.getDefaultOrganizations();
         Subscription sub = null;
         if (defaultOrg != null) {
             sub = subscriptionRepository
-                    .findFirstByOrgIdAndProductCodeAndStatusOrderByCreatedTimeDesc(
-                            defaultOrg.getId(), productCode, 1)
+                    .findWithPlanByOrgIdAndProductCodeAndStatus(defaultOrg.getId(), productCode, 1)
+                    .stream()
+                    .findFirst()
                     .orElse(null);
         }
 
@@ -108,20 +122,12 @@ public class ProductInitController {
             planSummary.setExpiryTime(sub.getExpiryTime());
             planSummary.setActivationSource(sub.getActivationSource());
 
-            // Parse features_json into a map so it's returned as a proper JSON object
+            // Embed features_json as a pre-rendered JSON object (no per-request parse)
             // Priority: lockedFeaturesJson (paid users) → plan featuresJson (free users)
             String featuresJson = sub.getLockedFeaturesJson() != null
                     ? sub.getLockedFeaturesJson()
                     : sub.getPlan().getFeaturesJson();
-
-            try {
-                Map<String, Object> featuresMap = objectMapper.readValue(
-                        featuresJson, new TypeReference<Map<String, Object>>() {
-                        });
-                planSummary.setFeatures(featuresMap);
-            } catch (Exception e) {
-                planSummary.setFeatures(featuresJson); // fallback: raw string
-            }
+            planSummary.setFeatures(featureFragmentCache.getFragment(sub.getPlan().getId(), featuresJson));
 
             response.setPlan(planSummary);
         } else {
@@ -129,17 +135,7 @@ public class ProductInitController {
             response.setPlan(null);
         }
 
-        return ResponseEntity.ok(ApiResponse.success("Init data for " + product, response));
-    }
-
-    private User getAuthenticatedUser(HttpServletRequest request) {
-        if (request.getCookies() == null)
-            return null;
-        for (Cookie cookie : request.getCookies()) {
-            if ("user_session".equals(cookie.getName())) {
-                return userService.getUserBySession(cookie.getValue());
-            }
-        }
-        return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success("Init data for " + product, response));
     }
 }
@@ -23,7 +23,7 @@ public class ProductInitResponse {
         private Integer planType; // 1: Free, 2: Paid, 3: Lifetime
         private Long expiryTime; // -1 for lifetime/free
         private String activationSource; // system/payment/admin/trial/promo
-        private Object features; // Parsed features_json as a map
+        private Object features; // features_json as a RawValue JSON object (or raw string)
 
         public String getPlanName() {
             return planName;
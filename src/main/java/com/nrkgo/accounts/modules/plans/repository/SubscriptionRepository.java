@@ -2,6 +2,8 @@ package com.nrkgo.accounts.modules.plans.repository;
 
 import com.nrkgo.accounts.modules.plans.model.Subscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +15,12 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
     Optional<Subscription> findFirstByOrgIdAndProductCodeAndStatusOrderByCreatedTimeDesc(
             Long orgId, Integer productCode, Integer status);
 
+    // Active subscription(s) with the plan fetched in the same query, newest first (entitlement loading)
+    @Query("SELECT s FROM Subscription s JOIN FETCH s.plan WHERE s.org.id = :orgId " +
+            "AND s.productCode = :productCode AND s.status = :status ORDER BY s.createdTime DESC")
+    List<Subscription> findWithPlanByOrgIdAndProductCodeAndStatus(@Param("orgId") Long orgId,
+            @Param("productCode") Integer productCode, @Param("status") Integer status);
+
     // Full subscription history for an org on a specific product (admin/audit use)
     List<Subscription> findByOrgIdAndProductCodeOrderByCreatedTimeDesc(
             Long orgId, Integer productCode);
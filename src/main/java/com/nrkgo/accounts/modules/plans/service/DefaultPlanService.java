@@ -1,6 +1,5 @@
 package com.nrkgo.accounts.modules.plans.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nrkgo.accounts.model.Organization;
 import com.nrkgo.accounts.model.User;
@@ -8,12 +7,15 @@ import com.nrkgo.accounts.modules.plans.model.Plan;
 import com.nrkgo.accounts.modules.plans.model.Subscription;
 import com.nrkgo.accounts.modules.plans.repository.PlanRepository;
 import com.nrkgo.accounts.modules.plans.repository.SubscriptionRepository;
-import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
-@Service
+/**
+ * Plan logic shared by all products. Not a bean by itself: PlanServiceFactory
+ * creates one long-lived instance per product code found in the products
+ * table, unless a product-specific PlanService bean claims that code.
+ */
 public class DefaultPlanService implements PlanService {
 
     protected static final int STATUS_ACTIVE = 1;
@@ -29,23 +31,51 @@ public class DefaultPlanService implements PlanService {
     protected final PlanRepository planRepository;
     protected final SubscriptionRepository subscriptionRepository;
     protected final ObjectMapper objectMapper;
+    protected final EntitlementCache entitlementCache;
 
-    protected int productCode = ProductCodes.SNAP_STEPS;
+    protected final int productCode;
 
-    public DefaultPlanService(PlanRepository planRepository,
+    // Active plans for this product; swapped wholesale by refreshCatalog()
+    private volatile PlanCatalog catalog;
+
+    public DefaultPlanService(int productCode,
+            PlanRepository planRepository,
             SubscriptionRepository subscriptionRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            EntitlementCache entitlementCache) {
+        this.productCode = productCode;
         this.planRepository = planRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.objectMapper = objectMapper;
+        this.entitlementCache = entitlementCache;
+    }
+
+    @Override
+    public int getProductCode() {
+        return productCode;
+    }
+
+    @Override
+    public PlanCatalog getCatalog() {
+        PlanCatalog current = catalog;
+        if (current == null) {
+            refreshCatalog();
+            current = catalog;
+        }
+        return current;
+    }
+
+    @Override
+    public void refreshCatalog() {
+        catalog = new PlanCatalog(productCode,
+                planRepository.findByProductCodeAndStatus(productCode, STATUS_ACTIVE), PLAN_TYPE_FREE);
     }
 
     protected Plan getFreePlan() {
-        return planRepository.findByProductCodeAndStatus(productCode, STATUS_ACTIVE)
-                .stream()
-                .filter(p -> p.getPlanType() == PLAN_TYPE_FREE)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No free plan for product: " + productCode));
+        Plan freePlan = getCatalog().getFreePlan();
+        if (freePlan == null)
+            throw new IllegalStateException("No free plan for product: " + productCode);
+        return freePlan;
     }
 
     @Override
@@ -73,8 +103,12 @@ public class DefaultPlanService implements PlanService {
     @Transactional
     public Subscription switchPlan(Organization org, Long newPlanId,
             String activationSource, Long activatedByUserId, Long expiryTime) {
-        Plan newPlan = planRepository.findById(newPlanId)
-                .orElseThrow(() -> new IllegalArgumentException("Plan not found: " + newPlanId));
+        // Deprecated plans are not in the catalog but can still be assigned explicitly
+        Plan newPlan = getCatalog().getActivePlan(newPlanId);
+        if (newPlan == null) {
+            newPlan = planRepository.findById(newPlanId)
+                    .orElseThrow(() -> new IllegalArgumentException("Plan not found: " + newPlanId));
+        }
 
         // Get current for history chain
         Subscription currentSub = getActiveSubscription(org);
@@ -99,18 +133,29 @@ public class DefaultPlanService implements PlanService {
 
     @Override
     public boolean canAccess(Organization org, String featureKey) {
-        Subscription sub = getActiveSubscription(org);
-        if (sub == null)
-            return false;
-        return readBoolean(getEffectiveFeaturesJson(sub), featureKey);
+        return getEntitlements(org).canAccess(featureKey);
     }
 
     @Override
     public int getLimit(Organization org, String featureKey) {
-        Subscription sub = getActiveSubscription(org);
-        if (sub == null)
-            return 0;
-        return readInt(getEffectiveFeaturesJson(sub), featureKey);
+        return getEntitlements(org).getLimit(featureKey);
+    }
+
+    @Override
+    public Entitlements getEntitlements(Organization org) {
+        Entitlements cached = entitlementCache.get(productCode, org.getId());
+        if (cached != null)
+            return cached;
+
+        // Plan is fetched in the same query: features are read outside any transaction
+        Entitlements entitlements = subscriptionRepository
+                .findWithPlanByOrgIdAndProductCodeAndStatus(org.getId(), productCode, STATUS_ACTIVE)
+                .stream()
+                .findFirst()
+                .map(sub -> Entitlements.compile(sub.getId(), getEffectiveFeaturesJson(sub), objectMapper))
+                .orElse(Entitlements.NONE);
+        entitlementCache.put(productCode, org.getId(), entitlements);
+        return entitlements;
     }
 
     // --- Private helpers ---
@@ -137,7 +182,9 @@ public class DefaultPlanService implements PlanService {
             sub.setLockedFeaturesJson(plan.getFeaturesJson());
         }
 
-        return subscriptionRepository.save(sub);
+        Subscription saved = subscriptionRepository.save(sub);
+        entitlementCache.evictOrg(productCode, org.getId());
+        return saved;
     }
 
     private String getEffectiveFeaturesJson(Subscription sub) {
@@ -147,28 +194,4 @@ public class DefaultPlanService implements PlanService {
         // Free/system: use live plan limits
         return sub.getPlan().getFeaturesJson();
     }
-
-    private boolean readBoolean(String json, String key) {
-        try {
-            JsonNode node = objectMapper.readTree(json).get(key);
-            if (node == null)
-                return false;
-            if (node.isBoolean())
-                return node.asBoolean();
-            if (node.isNumber())
-                return node.asInt() != 0;
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private int readInt(String json, String key) {
-        try {
-            JsonNode node = objectMapper.readTree(json).get(key);
-            return node != null ? node.asInt() : 0;
-        } catch (Exception e) {
-            return 0;
-        }
-    }
 }
@@ -0,0 +1,169 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.nrkgo.accounts.common.cache.InitVersionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of compiled Entitlements, one LRU segment per product
+ * code, keyed by org id.
+ *
+ * Segments avoid a composite key object, so a warm lookup allocates nothing.
+ * Entries live until the TTL (which bounds staleness across nodes) or until
+ * a writer evicts them: switchPlan/cancelSubscription/initFreePlan, admin
+ * assign (per org) and admin plan updates (whole product). Eviction runs
+ * immediately and again after the surrounding transaction commits, and also
+ * invalidates the affected init ETag stamps (InitVersionCache).
+ */
+@Component
+public class EntitlementCache {
+
+    private final InitVersionCache initVersionCache;
+    private final int maxSizePerProduct;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EntitlementCache(InitVersionCache initVersionCache,
+            @Value("${app.entitlement-cache.max-size:10000}") int maxSizePerProduct,
+            @Value("${app.entitlement-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.initVersionCache = initVersionCache;
+        this.maxSizePerProduct = maxSizePerProduct;
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    /** Returns the cached entitlements, or null on a miss or expiry. */
+    public Entitlements get(int productCode, Long orgId) {
+        if (orgId == null)
+            return null;
+        Segment segment = segments.get(productCode);
+        Entitlements entitlements = (segment != null) ? segment.get(orgId, System.currentTimeMillis()) : null;
+        if (entitlements == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entitlements;
+    }
+
+    public void put(int productCode, Long orgId, Entitlements entitlements) {
+        if (orgId == null || entitlements == null || maxSizePerProduct <= 0)
+            return;
+        segments.computeIfAbsent(productCode, code -> new Segment())
+                .put(orgId, new CachedEntitlements(System.currentTimeMillis() + ttlMillis, entitlements));
+    }
+
+    public void evictOrg(int productCode, Long orgId) {
+        if (orgId == null)
+            return;
+        afterCommit(() -> {
+            Segment segment = segments.get(productCode);
+            if (segment != null)
+                segment.remove(orgId);
+        });
+        initVersionCache.evictOrg(orgId);
+    }
+
+    /** Drops every org's entry for a product, e.g. after its plan definitions change. */
+    public void evictProduct(int productCode) {
+        afterCommit(() -> {
+            Segment segment = segments.get(productCode);
+            if (segment != null)
+                segment.clear();
+        });
+        initVersionCache.evictAll();
+    }
+
+    public Map<String, Object> getStats() {
+        int size = 0;
+        for (Segment segment : segments.values())
+            size += segment.size();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("products", segments.size());
+        stats.put("max_size_per_product", maxSizePerProduct);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private void afterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class CachedEntitlements {
+        private final long validUntil;
+        private final Entitlements entitlements;
+
+        private CachedEntitlements(long validUntil, Entitlements entitlements) {
+            this.validUntil = validUntil;
+            this.entitlements = entitlements;
+        }
+    }
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by the segment itself.
+    private final class Segment {
+        private final LinkedHashMap<Long, CachedEntitlements> entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedEntitlements> eldest) {
+                if (size() > maxSizePerProduct) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        synchronized Entitlements get(Long orgId, long now) {
+            CachedEntitlements entry = entries.get(orgId);
+            if (entry == null)
+                return null;
+            if (entry.validUntil <= now) {
+                entries.remove(orgId);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.entitlements;
+        }
+
+        synchronized void put(Long orgId, CachedEntitlements entry) {
+            entries.put(orgId, entry);
+        }
+
+        synchronized void remove(Long orgId) {
+            if (entries.remove(orgId) != null)
+                evictions.incrementAndGet();
+        }
+
+        synchronized void clear() {
+            evictions.addAndGet(entries.size());
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
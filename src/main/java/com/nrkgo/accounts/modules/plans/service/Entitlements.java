@@ -0,0 +1,104 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An org's effective features for one product, compiled once from the
+ * subscription's features JSON into a flat, immutable map.
+ *
+ * Lookups are plain map reads with no parsing and no allocation. Values are
+ * interpreted exactly as the old per-call readTree code did: booleans as
+ * themselves, numbers as != 0 for access checks, any other present value as
+ * granted; limits use JsonNode.asInt() and -1 means unlimited.
+ */
+public final class Entitlements {
+
+    public static final int UNLIMITED = -1;
+
+    /** Sentinel for "no active subscription": nothing granted, every limit 0. */
+    public static final Entitlements NONE = new Entitlements(null, Map.of());
+
+    private final Long subscriptionId;
+    private final Map<String, Feature> features;
+
+    private Entitlements(Long subscriptionId, Map<String, Feature> features) {
+        this.subscriptionId = subscriptionId;
+        this.features = features;
+    }
+
+    /**
+     * Compiles the given features JSON. Malformed or non-object JSON yields
+     * an empty set of features, matching the previous fail-closed behaviour.
+     */
+    public static Entitlements compile(Long subscriptionId, String featuresJson, ObjectMapper objectMapper) {
+        if (featuresJson == null)
+            return new Entitlements(subscriptionId, Map.of());
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(featuresJson);
+        } catch (Exception e) {
+            return new Entitlements(subscriptionId, Map.of());
+        }
+        if (root == null || !root.isObject())
+            return new Entitlements(subscriptionId, Map.of());
+
+        Map<String, Feature> features = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode node = field.getValue();
+            boolean enabled;
+            if (node.isBoolean())
+                enabled = node.asBoolean();
+            else if (node.isNumber())
+                enabled = node.asInt() != 0;
+            else
+                enabled = true;
+            features.put(field.getKey(), new Feature(enabled, node.asInt()));
+        }
+        return new Entitlements(subscriptionId, Map.copyOf(features));
+    }
+
+    public Long getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public boolean canAccess(String featureKey) {
+        if (featureKey == null)
+            return false;
+        Feature feature = features.get(featureKey);
+        return feature != null && feature.enabled;
+    }
+
+    /** Returns the numeric limit, -1 for unlimited, 0 if the feature is absent. */
+    public int getLimit(String featureKey) {
+        if (featureKey == null)
+            return 0;
+        Feature feature = features.get(featureKey);
+        return feature != null ? feature.limit : 0;
+    }
+
+    public boolean isUnlimited(String featureKey) {
+        return getLimit(featureKey) == UNLIMITED;
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    private static final class Feature {
+        private final boolean enabled;
+        private final int limit;
+
+        private Feature(boolean enabled, int limit) {
+            this.enabled = enabled;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-rendered JSON for a subscription's features, keyed by plan id plus the
+ * effective features JSON (locked snapshot or live plan features).
+ *
+ * A hit hands back a RawValue that Jackson writes verbatim into the response,
+ * so /{product}/init no longer parses features_json into a Map and
+ * re-serializes it. The output matches the old behaviour: a JSON object is
+ * embedded as an object (compacted once), anything else falls back to the raw
+ * string. Keying on the JSON text itself means a plan or limits update simply
+ * misses and ages the old entry out; no explicit eviction is needed.
+ */
+@Component
+public class FeatureFragmentCache {
+
+    // features_json of "null" used to parse to a null Map and render as null
+    private static final RawValue NULL_FRAGMENT = new RawValue("null");
+
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by 'this'.
+    private final LinkedHashMap<FragmentKey, Object> fragments;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FeatureFragmentCache(ObjectMapper objectMapper,
+            @Value("${app.feature-fragment-cache.max-size:1000}") int maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.fragments = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FragmentKey, Object> eldest) {
+                return size() > FeatureFragmentCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value to put in PlanSummary.features: a RawValue holding
+     * the compact JSON object, or the raw string when it is not a JSON object.
+     */
+    public Object getFragment(Long planId, String featuresJson) {
+        if (featuresJson == null)
+            return null;
+
+        FragmentKey key = new FragmentKey(planId, featuresJson);
+        Object fragment;
+        synchronized (this) {
+            fragment = fragments.get(key);
+        }
+        if (fragment != null) {
+            hits.incrementAndGet();
+            return fragment;
+        }
+
+        misses.incrementAndGet();
+        fragment = render(featuresJson);
+        if (maxSize > 0) {
+            synchronized (this) {
+                fragments.put(key, fragment);
+            }
+        }
+        return fragment;
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (this) {
+            size = fragments.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("max_size", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private Object render(String featuresJson) {
+        try {
+            JsonNode node = objectMapper.readTree(featuresJson);
+            if (node != null && node.isObject())
+                return new RawValue(objectMapper.writeValueAsString(node));
+            if (node != null && node.isNull())
+                return NULL_FRAGMENT;
+        } catch (Exception e) {
+            // fall through: not valid JSON
+        }
+        return featuresJson; // fallback: raw string
+    }
+
+    private static final class FragmentKey {
+        private final Long planId;
+        private final String featuresJson;
+
+        private FragmentKey(Long planId, String featuresJson) {
+            this.planId = planId;
+            this.featuresJson = featuresJson;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof FragmentKey))
+                return false;
+            FragmentKey other = (FragmentKey) o;
+            return Objects.equals(planId, other.planId) && featuresJson.equals(other.featuresJson);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(planId) + featuresJson.hashCode();
+        }
+    }
+}
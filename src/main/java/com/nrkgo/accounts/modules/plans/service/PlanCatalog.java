@@ -0,0 +1,58 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.nrkgo.accounts.modules.plans.model.Plan;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a product's active plans, loaded once and swapped
+ * wholesale on refresh. The Plan instances are detached and shared: treat
+ * them as read-only.
+ */
+public final class PlanCatalog {
+
+    private final int productCode;
+    private final List<Plan> activePlans;
+    private final Map<Long, Plan> plansById;
+    private final Plan freePlan;
+    private final long loadedTime;
+
+    PlanCatalog(int productCode, List<Plan> activePlans, int freePlanType) {
+        this.productCode = productCode;
+        this.activePlans = List.copyOf(activePlans);
+        Map<Long, Plan> byId = new HashMap<>();
+        Plan free = null;
+        for (Plan plan : this.activePlans) {
+            byId.put(plan.getId(), plan);
+            if (free == null && plan.getPlanType() != null && plan.getPlanType() == freePlanType)
+                free = plan;
+        }
+        this.plansById = Map.copyOf(byId);
+        this.freePlan = free;
+        this.loadedTime = System.currentTimeMillis();
+    }
+
+    public int getProductCode() {
+        return productCode;
+    }
+
+    public List<Plan> getActivePlans() {
+        return activePlans;
+    }
+
+    /** Returns the active plan with this id, or null if unknown or deprecated. */
+    public Plan getActivePlan(Long planId) {
+        return planId != null ? plansById.get(planId) : null;
+    }
+
+    /** Returns the product's free plan, or null if none is active. */
+    public Plan getFreePlan() {
+        return freePlan;
+    }
+
+    public long getLoadedTime() {
+        return loadedTime;
+    }
+}
@@ -16,6 +16,15 @@ import com.nrkgo.accounts.modules.plans.model.Subscription;
  */
 public interface PlanService {
 
+    /** The product code this service is registered under in PlanServiceFactory. */
+    int getProductCode();
+
+    /** Active plans for this product, loaded once and cached. */
+    PlanCatalog getCatalog();
+
+    /** Reload the plan catalog. Called by PlanServiceFactory after admin changes. */
+    void refreshCatalog();
+
     /** Initialize the free plan for a newly created org. Called on org creation. */
     Subscription initFreePlan(Organization org, User activatedBy);
 
@@ -31,6 +40,12 @@ public interface PlanService {
      */
     int getLimit(Organization org, String featureKey);
 
+    /**
+     * Get the org's compiled entitlements (cached). Returns
+     * Entitlements.NONE when the org has no active subscription.
+     */
+    Entitlements getEntitlements(Organization org);
+
     /** Switch the org to a new plan. */
     Subscription switchPlan(Organization org, Long newPlanId, String activationSource, Long activatedByUserId,
             Long expiryTime);
@@ -1,49 +1,168 @@
 package com.nrkgo.accounts.modules.plans.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.modules.plans.model.Product;
 import com.nrkgo.accounts.modules.plans.repository.PlanRepository;
 import com.nrkgo.accounts.modules.plans.repository.SubscriptionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Factory that returns the correct PlanService implementation for a given
- * product code.
+ * Registry of long-lived PlanService instances, one per product code.
+ *
+ * Every product in ProductRegistry gets a DefaultPlanService, created once
+ * and reused. A product that needs custom behaviour declares its own
+ * PlanService bean; the bean's getProductCode() claims that code.
  *
  * HOW TO ADD A NEW PRODUCT:
  * 1. Add a new constant in ProductCodes.java
- * 2. Create MyProductPlanService extends DefaultPlanService
- * 3. Add a case in the switch below
+ * 2. INSERT it into the products table (or POST /admin/products)
+ * 3. Only if it needs custom rules: create a @Service that
+ * extends DefaultPlanService and passes its product code to super(...)
+ *
+ * Admin changes refresh the registry and plan catalogs after commit; other
+ * nodes pick them up on the periodic refresh (app.plans.catalog-refresh-ms).
  */
 @Component
 public class PlanServiceFactory {
 
+    private static final Logger log = LoggerFactory.getLogger(PlanServiceFactory.class);
+
+    // Minimum gap between registry reloads triggered by an unknown product code
+    private static final long MISS_RELOAD_INTERVAL_MS = 5000L;
+
+    private final ProductRegistry productRegistry;
     private final PlanRepository planRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final ObjectMapper objectMapper;
+    private final EntitlementCache entitlementCache;
+    private final AutowireCapableBeanFactory beanFactory;
+    private final ObjectProvider<PlanService> customServices;
+
+    // Copy-on-write: rebuilt under 'this', read without locking
+    private volatile Map<Integer, PlanService> services = Map.of();
+    private volatile long lastReloadTime;
 
-    public PlanServiceFactory(PlanRepository planRepository,
+    public PlanServiceFactory(ProductRegistry productRegistry,
+            PlanRepository planRepository,
             SubscriptionRepository subscriptionRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            EntitlementCache entitlementCache,
+            AutowireCapableBeanFactory beanFactory,
+            ObjectProvider<PlanService> customServices) {
+        this.productRegistry = productRegistry;
         this.planRepository = planRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.objectMapper = objectMapper;
+        this.entitlementCache = entitlementCache;
+        this.beanFactory = beanFactory;
+        this.customServices = customServices;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reloadProducts();
+            services.values().forEach(PlanService::refreshCatalog);
+            log.info("Plan services registered for products {}", services.keySet());
+        } catch (RuntimeException e) {
+            // Not fatal: the registry is retried on first use and on the periodic refresh
+            log.error("Failed to preload plan services", e);
+        }
     }
 
     public PlanService getInstance(int productCode) {
-        switch (productCode) {
-            case ProductCodes.SNAP_STEPS: {
-                DefaultPlanService svc = new DefaultPlanService(
-                        planRepository, subscriptionRepository, objectMapper);
-                svc.productCode = ProductCodes.SNAP_STEPS;
-                return svc;
-            }
-            // Future products — just add a case:
-            // case ProductCodes.CENTILIO_PDF:
-            // return new CentilioPdfPlanService(planRepository, subscriptionRepository,
-            // objectMapper);
-
-            default:
-                throw new IllegalArgumentException("Unknown product code: " + productCode);
+        PlanService service = services.get(productCode);
+        if (service == null && System.currentTimeMillis() - lastReloadTime > MISS_RELOAD_INTERVAL_MS) {
+            // May have been registered on another node since the last refresh
+            productRegistry.reload();
+            reloadProducts();
+            service = services.get(productCode);
+        }
+        if (service == null)
+            throw new IllegalArgumentException("Unknown product code: " + productCode);
+        return service;
+    }
+
+    /** Reloads one product's plan catalog once the current transaction commits. */
+    public void refreshCatalog(int productCode) {
+        afterCommit(() -> {
+            PlanService service = services.get(productCode);
+            if (service != null)
+                service.refreshCatalog();
+        });
+    }
+
+    /**
+     * Rebuilds the registry from ProductRegistry once the current transaction
+     * commits. Call after ProductRegistry.reloadAfterCommit().
+     */
+    public void refreshProducts() {
+        afterCommit(this::reloadProducts);
+    }
+
+    @Scheduled(fixedDelayString = "${app.plans.catalog-refresh-ms:300000}", initialDelayString = "${app.plans.catalog-refresh-ms:300000}")
+    public void refreshAll() {
+        try {
+            reloadProducts();
+            services.values().forEach(PlanService::refreshCatalog);
+        } catch (RuntimeException e) {
+            log.warn("Plan catalog refresh failed; keeping previous catalogs", e);
+        }
+    }
+
+    // --- Private helpers ---
+
+    private synchronized void reloadProducts() {
+        Map<Integer, PlanService> current = services;
+        Map<Integer, PlanService> next = new HashMap<>();
+
+        customServices.orderedStream().forEach(service -> {
+            PlanService previous = next.putIfAbsent(service.getProductCode(), service);
+            if (previous != null)
+                throw new IllegalStateException("Multiple PlanService beans for product code " + service.getProductCode());
+        });
+
+        // Deprecated products keep their service: existing subscriptions still resolve
+        for (Product product : productRegistry.getAll()) {
+            Integer code = product.getProductCode();
+            if (code == null || next.containsKey(code))
+                continue;
+            PlanService existing = current.get(code);
+            next.put(code, existing != null ? existing : createDefaultService(code));
+        }
+
+        services = Map.copyOf(next);
+        lastReloadTime = System.currentTimeMillis();
+    }
+
+    private PlanService createDefaultService(int productCode) {
+        DefaultPlanService service = new DefaultPlanService(productCode,
+                planRepository, subscriptionRepository, objectMapper, entitlementCache);
+        // Applies the transaction proxy so @Transactional on the service methods takes effect
+        return (PlanService) beanFactory.initializeBean(service, "planService." + productCode);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 }
@@ -8,7 +8,7 @@ import java.util.Map;
  * When you add a new product:
  * 1. Add an int constant here
  * 2. Add its slug + INSERT into products table in its SQL file
- * 3. Add a case in PlanServiceFactory
+ * 3. Only for custom plan rules: add a PlanService bean (see PlanServiceFactory)
  */
 public final class ProductCodes {
 
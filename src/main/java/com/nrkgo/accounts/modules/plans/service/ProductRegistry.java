@@ -0,0 +1,155 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.nrkgo.accounts.modules.plans.model.Product;
+import com.nrkgo.accounts.modules.plans.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the products table, keyed by slug and by product code.
+ *
+ * The whole table is small, so it is loaded at startup and replaced as one
+ * immutable snapshot: readers never lock and never see a half-built map.
+ * AdminProductController triggers a reload after its writes commit; other
+ * nodes pick changes up on the poll (app.products.refresh-ms) unless
+ * app.products.polling-enabled=false.
+ */
+@Component
+public class ProductRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRegistry.class);
+
+    private static final int STATUS_ACTIVE = 1;
+
+    private final ProductRepository productRepository;
+    private final boolean pollingEnabled;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private final AtomicLong slugHits = new AtomicLong();
+    private final AtomicLong slugMisses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    public ProductRegistry(ProductRepository productRepository,
+            @Value("${app.products.polling-enabled:true}") boolean pollingEnabled) {
+        this.productRepository = productRepository;
+        this.pollingEnabled = pollingEnabled;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Not fatal: the next poll or admin write retries
+            log.error("Failed to preload products", e);
+        }
+    }
+
+    /** Returns the ACTIVE product with this slug, or null. */
+    public Product findActiveBySlug(String slug) {
+        if (slug == null)
+            return null;
+        Map<String, Product> bySlug = snapshot.activeBySlug;
+        Product product = bySlug.get(slug);
+        if (product == null)
+            product = bySlug.get(slug.toLowerCase(Locale.ROOT)); // slugs are stored lowercase
+        if (product == null) {
+            slugMisses.incrementAndGet();
+            return null;
+        }
+        slugHits.incrementAndGet();
+        return product;
+    }
+
+    /** Returns the product with this code regardless of status, or null. */
+    public Product findByCode(Integer productCode) {
+        return productCode != null ? snapshot.byCode.get(productCode) : null;
+    }
+
+    /** All products, active and deprecated. */
+    public List<Product> getAll() {
+        return snapshot.all;
+    }
+
+    public void reload() {
+        Snapshot next = new Snapshot(productRepository.findAll());
+        snapshot = next;
+        reloads.incrementAndGet();
+    }
+
+    /** Reloads once the current transaction commits (immediately if none). */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.refresh-ms:60000}", initialDelayString = "${app.products.refresh-ms:60000}")
+    public void poll() {
+        if (!pollingEnabled)
+            return;
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Product registry refresh failed; keeping previous snapshot", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", current.all.size());
+        stats.put("active_slugs", current.activeBySlug.size());
+        stats.put("loaded_time", current.loadedTime);
+        stats.put("reloads", reloads.get());
+        stats.put("slug_hits", slugHits.get());
+        stats.put("slug_misses", slugMisses.get());
+        return stats;
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(List.of());
+
+        private final List<Product> all;
+        private final Map<String, Product> activeBySlug;
+        private final Map<Integer, Product> byCode;
+        private final long loadedTime;
+
+        private Snapshot(List<Product> products) {
+            Map<String, Product> slugs = new HashMap<>();
+            Map<Integer, Product> codes = new HashMap<>();
+            for (Product product : products) {
+                if (product.getProductCode() != null)
+                    codes.put(product.getProductCode(), product);
+                if (product.getSlug() != null && product.getStatus() != null
+                        && product.getStatus() == STATUS_ACTIVE)
+                    slugs.put(product.getSlug(), product);
+            }
+            this.all = List.copyOf(products);
+            this.activeBySlug = Map.copyOf(slugs);
+            this.byCode = Map.copyOf(codes);
+            this.loadedTime = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.nrkgo.accounts.modules.snapsteps.controller;
+
+import com.nrkgo.accounts.common.auth.AuthContext;
+import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.common.util.ETagUtils;
+import com.nrkgo.accounts.modules.snapsteps.service.SnapGuideService;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves screenshots referenced from steps_json. Blobs are immutable (the
+ * path is their hash), so they are cached by the browser for a year.
+ *
+ * A blob is shared by every guide that contains the same image, so the
+ * caller must own a guide in the current org that references the hash.
+ * Anything else is a 404, which does not reveal whether the image exists
+ * elsewhere.
+ */
+@RestController
+@RequestMapping(ScreenshotRefs.PATH_PREFIX)
+public class ScreenshotController {
+
+    // Tomcat NIO connectors send files with sendfile when these request attributes are set
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ScreenshotStore screenshotStore;
+    private final SnapGuideService guideService;
+
+    public ScreenshotController(ScreenshotStore screenshotStore, SnapGuideService guideService) {
+        this.screenshotStore = screenshotStore;
+        this.guideService = guideService;
+    }
+
+    @GetMapping("{hash}.{extension}")
+    public ResponseEntity<ApiResponse<Void>> getScreenshot(
+            AuthContext auth,
+            @PathVariable String hash,
+            @PathVariable String extension,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        if (auth.getUser() == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
+        }
+
+        String mediaType = ScreenshotRefs.mediaTypeFor(extension);
+        boolean visible = mediaType != null && ScreenshotStore.isValidHash(hash)
+                && guideService.canViewScreenshot(hash, auth.getUser(), auth.getOrgId());
+        long size = visible ? screenshotStore.size(hash) : -1;
+        if (size < 0) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Screenshot not found"));
+        }
+
+        String etag = "\"" + hash + "\"";
+        String cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable().getHeaderValue();
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(mediaType);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+        Path file = screenshotStore.localFile(hash);
+        if (file != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Zero-copy: the connector hands the file to the socket after this handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+        } else {
+            screenshotStore.transferTo(hash, Channels.newChannel(response.getOutputStream()));
+        }
+        return null; // response already written
+    }
+}
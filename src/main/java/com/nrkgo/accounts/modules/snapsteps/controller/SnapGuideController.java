@@ -1,107 +1,154 @@
 package com.nrkgo.accounts.modules.snapsteps.controller;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nrkgo.accounts.common.auth.AuthContext;
 import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideBulkResult;
 import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuidePatchDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto;
 import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
 import com.nrkgo.accounts.modules.snapsteps.service.SnapGuideService;
 import com.nrkgo.accounts.model.User;
-import com.nrkgo.accounts.service.UserService;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/snapsteps/api/guides")
 public class SnapGuideController {
 
+    private static final Logger log = LoggerFactory.getLogger(SnapGuideController.class);
+
     private final SnapGuideService guideService;
-    private final UserService userService;
-    private final com.nrkgo.accounts.repository.OrgUserRepository orgUserRepository;
+    // Per-guide writer for the streamed full list
+    private final ObjectWriter guideWriter;
+    private final ObjectMapper objectMapper;
 
     @Value("${app.guides.default-limit:30}")
     private int defaultLimit;
 
-    public SnapGuideController(SnapGuideService guideService,
-            UserService userService,
-            com.nrkgo.accounts.repository.OrgUserRepository orgUserRepository) {
+    @Value("${app.guides.max-limit:100}")
+    private int maxLimit;
+
+    public SnapGuideController(SnapGuideService guideService, ObjectMapper objectMapper) {
         this.guideService = guideService;
-        this.userService = userService;
-        this.orgUserRepository = orgUserRepository;
+        this.objectMapper = objectMapper;
+        this.guideWriter = objectMapper.writerFor(SnapGuide.class);
     }
 
-    private User getAuthenticatedUser(HttpServletRequest request) {
-        String token = getCookieValue(request, "user_session");
-        if (token == null)
-            return null;
-        return userService.getUserBySession(token);
-    }
+    @PostMapping("/save")
+    public ResponseEntity<ApiResponse<SnapGuide>> saveGuide(
+            AuthContext auth,
+            @RequestBody SnapGuideDto guideDto) {
 
-    private Long getOrganizationId(HttpServletRequest request, User user) {
-        String orgIdStr = getCookieValue(request, "ORG_ID");
-        if (orgIdStr != null) {
-            try {
-                return Long.parseLong(orgIdStr);
-            } catch (NumberFormatException ignored) {
-            }
+        User user = auth.getUser();
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
+        }
+
+        Long orgId = auth.getOrgId();
+        if (orgId == null) {
+            return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
         }
 
-        // Fallback: Use user's default organization
-        return orgUserRepository.findByUserId(user.getId()).stream()
-                .filter(ou -> ou.getIsDefault() != null && ou.getIsDefault() == 1)
-                .map(com.nrkgo.accounts.model.OrgUser::getOrgId)
-                .findFirst()
-                .orElseGet(() -> orgUserRepository.findByUserId(user.getId()).stream()
-                        .map(com.nrkgo.accounts.model.OrgUser::getOrgId)
-                        .findFirst()
-                        .orElse(null));
+        try {
+            SnapGuide savedGuide = guideService.saveGuide(guideDto, user, orgId);
+            return ResponseEntity.ok(ApiResponse.success("Guide saved successfully", savedGuide));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(403).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Failed to save guide: " + e.getMessage()));
+        }
     }
 
-    private String getCookieValue(HttpServletRequest request, String name) {
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if (name.equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
-            }
+    /**
+     * Saves many guides in one request (e.g. the extension's first sync).
+     * Each guide gets its own result; invalid ones are skipped, not fatal.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<SnapGuideBulkResult>>> saveGuides(
+            AuthContext auth,
+            @RequestBody List<SnapGuideDto> guideDtos) {
+
+        User user = auth.getUser();
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
+        }
+
+        Long orgId = auth.getOrgId();
+        if (orgId == null) {
+            return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
+        }
+
+        try {
+            List<SnapGuideBulkResult> results = guideService.saveGuides(guideDtos, user, orgId);
+            return ResponseEntity.ok(ApiResponse.success("Guides synced", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
-        return null;
     }
 
-    @PostMapping("/save")
-    public ResponseEntity<ApiResponse<SnapGuide>> saveGuide(
-            HttpServletRequest request,
-            @RequestBody SnapGuideDto guideDto) {
+    /**
+     * Delta sync: applies step upserts/removals/reordering against base_version.
+     * Responds 409 when the guide changed since that version; the client then
+     * refetches the guide and rebases its changes.
+     */
+    @PatchMapping("/{externalId}")
+    public ResponseEntity<ApiResponse<SnapGuide>> patchGuide(
+            AuthContext auth,
+            @PathVariable String externalId,
+            @RequestBody SnapGuidePatchDto patch) {
 
-        User user = getAuthenticatedUser(request);
+        User user = auth.getUser();
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
 
-        Long orgId = getOrganizationId(request, user);
+        Long orgId = auth.getOrgId();
         if (orgId == null) {
             return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
         }
 
         try {
-            SnapGuide savedGuide = guideService.saveGuide(guideDto, user, orgId);
-            return ResponseEntity.ok(ApiResponse.success("Guide saved successfully", savedGuide));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Failed to save guide: " + e.getMessage()));
+            SnapGuide guide = guideService.patchGuide(externalId, patch, user, orgId);
+            return ResponseEntity.ok(ApiResponse.success("Guide synced successfully", guide));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409)
+                    .body(ApiResponse.error("Guide was modified by another sync; fetch the latest version and retry"));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(403).body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
 
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    // No method-level transaction: the streamed list runs its own, and a failure inside it must not
+    // turn into an UnexpectedRollbackException after the response is committed
     @GetMapping
     public ResponseEntity<ApiResponse<?>> listGuides(
             HttpServletRequest request,
+            HttpServletResponse response,
+            AuthContext auth,
             @RequestParam(value = "id", required = false) Long guideId,
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor) {
 
         System.out.println("DEBUG: listGuides called with id=" + guideId + ", page=" + page + ", search=" + search);
 
@@ -114,12 +161,12 @@ public class SnapGuideController {
             }
         }
 
-        User user = getAuthenticatedUser(request);
+        User user = auth.getUser();
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
 
-        Long orgId = getOrganizationId(request, user);
+        Long orgId = auth.getOrgId();
         if (orgId == null) {
             return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
         }
@@ -137,16 +184,27 @@ public class SnapGuideController {
             }
         }
 
+        // Keyset Flow: ?cursor= (empty for the first page), then pageable.next_cursor
+        if (cursor != null && page == null && (search == null || search.trim().isEmpty())) {
+            int pageSize = (size != null && size > 0) ? Math.min(size, maxLimit) : defaultLimit;
+            try {
+                return ResponseEntity.ok(ApiResponse.cursorSuccess("Guides fetched successfully",
+                        guideService.getGuidesForUser(user, orgId, cursor, pageSize), pageSize));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+            }
+        }
+
         // Paginated Flow
         if (page != null) {
             int springPage = (page > 0) ? page - 1 : 0; // 1-based to 0-based
-            int pageSize = (size != null) ? size : defaultLimit;
+            int pageSize = (size != null && size > 0) ? Math.min(size, maxLimit) : defaultLimit;
             org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(
                     springPage,
                     pageSize,
                     org.springframework.data.domain.Sort.by("modifiedTime").descending());
 
-            org.springframework.data.domain.Page<SnapGuide> result;
+            org.springframework.data.domain.Page<SnapGuideSummaryDto> result;
             if (search != null && !search.trim().isEmpty()) {
                 result = guideService.searchGuides(user, orgId, search, pageable);
             } else {
@@ -156,22 +214,23 @@ public class SnapGuideController {
         }
 
         // Default: Full list Flow (Backward compatibility)
-        List<SnapGuide> guides = guideService.getGuidesForUser(user, orgId);
-        return ResponseEntity.ok(ApiResponse.success("Guides fetched successfully", guides));
+        // Streamed straight from the DB cursor so heap use does not grow with the guide count
+        streamGuides(response, user, orgId);
+        return null; // response already written
     }
 
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     @GetMapping("/{externalId}")
     public ResponseEntity<ApiResponse<SnapGuide>> getGuide(
-            HttpServletRequest request,
+            AuthContext auth,
             @PathVariable String externalId) {
 
-        User user = getAuthenticatedUser(request);
+        User user = auth.getUser();
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
 
-        Long orgId = getOrganizationId(request, user);
+        Long orgId = auth.getOrgId();
         if (orgId == null) {
             return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
         }
@@ -188,15 +247,15 @@ public class SnapGuideController {
 
     @DeleteMapping("/{externalId}")
     public ResponseEntity<ApiResponse<Void>> deleteGuide(
-            HttpServletRequest request,
+            AuthContext auth,
             @PathVariable String externalId) {
 
-        User user = getAuthenticatedUser(request);
+        User user = auth.getUser();
         if (user == null) {
             return ResponseEntity.status(401).body(ApiResponse.error("Unauthenticated"));
         }
 
-        Long orgId = getOrganizationId(request, user);
+        Long orgId = auth.getOrgId();
         if (orgId == null) {
             return ResponseEntity.status(400).body(ApiResponse.error("Organization context missing"));
         }
@@ -210,4 +269,71 @@ public class SnapGuideController {
             return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
         }
     }
+
+    // --- Private helpers ---
+
+    /**
+     * Writes the same envelope ApiResponse.success(...) would produce,
+     * {"success":true,"message":...,"data":[...]}, one guide at a time.
+     *
+     * If it fails before anything reached the client, the partial body is
+     * discarded and the client gets a normal 500 ApiResponse.error. Once the
+     * response is committed the status can no longer change, so the array is
+     * closed and the envelope ends with an "error" field instead: clients
+     * must treat a list carrying "error" as incomplete.
+     */
+    private void streamGuides(HttpServletResponse response, User user, Long orgId) {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        JsonGenerator generator = null;
+        try {
+            generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeStringField("message", "Guides fetched successfully");
+            generator.writeArrayFieldStart("data");
+            JsonGenerator out = generator;
+            guideService.streamGuidesForUser(user, orgId, guide -> {
+                try {
+                    // Rendered whole first, so a guide that fails to serialize never leaves half an object behind
+                    out.writeRawValue(guideWriter.writeValueAsString(guide));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } catch (IOException | RuntimeException e) {
+            failStream(response, generator, user, orgId, e);
+        }
+    }
+
+    private void failStream(HttpServletResponse response, JsonGenerator generator, User user, Long orgId,
+            Exception failure) {
+        Throwable cause = (failure instanceof UncheckedIOException) ? failure.getCause() : failure;
+        if (cause instanceof IOException && !(cause instanceof JsonProcessingException)) {
+            // Writing to the client failed (usually a disconnect): nobody is left to tell
+            log.warn("Streaming guide list aborted for user {} in org {}: {}", user.getId(), orgId, cause.getMessage());
+            return;
+        }
+
+        log.error("Streaming guide list failed for user {} in org {}", user.getId(), orgId, cause);
+        try {
+            if (!response.isCommitted()) {
+                // Bytes still in the generator are never flushed; resetBuffer drops those already handed over
+                response.resetBuffer();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Failed to fetch guides"));
+            } else if (generator != null && generator.getOutputContext().inArray()) {
+                generator.writeEndArray();
+                generator.writeStringField("error", "Guide list is incomplete: failed while reading guides");
+                generator.writeEndObject();
+                generator.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not report guide list failure to user {}: {}", user.getId(), e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.nrkgo.accounts.modules.snapsteps.dto;
+
+/**
+ * Per-guide outcome of a bulk save: status is "created", "updated" or
+ * "error" (message set, nothing written for that guide).
+ */
+public class SnapGuideBulkResult {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String ERROR = "error";
+
+    private final String externalId;
+    private final String status;
+    private final String message;
+
+    public SnapGuideBulkResult(String externalId, String status, String message) {
+        this.externalId = externalId;
+        this.status = status;
+        this.message = message;
+    }
+
+    public String getExternalId() { return externalId; }
+
+    public String getStatus() { return status; }
+
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,61 @@
+package com.nrkgo.accounts.modules.snapsteps.dto;
+
+import java.util.List;
+
+/**
+ * Delta sync payload. Applied in order: remove, upsert (replace by step id,
+ * or append when the id is new), then order (the complete list of step ids
+ * in their new order). base_version must equal the guide's current version.
+ */
+public class SnapGuidePatchDto {
+
+    private Long baseVersion;
+
+    private String title;
+
+    private List<SnapStepDto> upsert;
+
+    private List<String> remove;
+
+    private List<String> order;
+
+    public Long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public List<SnapStepDto> getUpsert() {
+        return upsert;
+    }
+
+    public void setUpsert(List<SnapStepDto> upsert) {
+        this.upsert = upsert;
+    }
+
+    public List<String> getRemove() {
+        return remove;
+    }
+
+    public void setRemove(List<String> remove) {
+        this.remove = remove;
+    }
+
+    public List<String> getOrder() {
+        return order;
+    }
+
+    public void setOrder(List<String> order) {
+        this.order = order;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nrkgo.accounts.modules.snapsteps.dto;
+
+/**
+ * List-view read model of a guide: every column except steps_json, which is
+ * only loaded on detail requests. Serializes with the same snake_case keys as
+ * SnapGuide, minus "steps_json".
+ */
+public class SnapGuideSummaryDto {
+    private final Long id;
+    private final String externalId;
+    private final String title;
+    private final Integer totalSteps;
+    private final String firstUrl;
+    private final String storageType;
+    private final Long version;
+    private final Long createdBy;
+    private final Long createdTime;
+    private final Long modifiedBy;
+    private final Long modifiedTime;
+
+    public SnapGuideSummaryDto(Long id, String externalId, String title, Integer totalSteps, String firstUrl,
+            String storageType, Long version, Long createdBy, Long createdTime, Long modifiedBy, Long modifiedTime) {
+        this.id = id;
+        this.externalId = externalId;
+        this.title = title;
+        this.totalSteps = totalSteps;
+        this.firstUrl = firstUrl;
+        this.storageType = storageType;
+        this.version = version;
+        this.createdBy = createdBy;
+        this.createdTime = createdTime;
+        this.modifiedBy = modifiedBy;
+        this.modifiedTime = modifiedTime;
+    }
+
+    public Long getId() { return id; }
+
+    public String getExternalId() { return externalId; }
+
+    public String getTitle() { return title; }
+
+    public Integer getTotalSteps() { return totalSteps; }
+
+    public String getFirstUrl() { return firstUrl; }
+
+    public String getStorageType() { return storageType; }
+
+    public Long getVersion() { return version; }
+
+    public Long getCreatedBy() { return createdBy; }
+
+    public Long getCreatedTime() { return createdTime; }
+
+    public Long getModifiedBy() { return modifiedBy; }
+
+    public Long getModifiedTime() { return modifiedTime; }
+}
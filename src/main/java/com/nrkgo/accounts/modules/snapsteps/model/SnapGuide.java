@@ -5,7 +5,11 @@ import com.nrkgo.accounts.model.User;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "ss_guides")
+@Table(name = "ss_guides", indexes = {
+        // Every list/count/stream/keyset query: WHERE user_id = ? AND org_id = ? [ORDER BY modified_time, id]
+        @Index(name = "idx_guides_user_org_modified", columnList = "user_id, org_id, modified_time, id"),
+        @Index(name = "idx_guides_org", columnList = "org_id")
+})
 public class SnapGuide extends BaseEntity {
 
     @Id
@@ -39,6 +43,16 @@ public class SnapGuide extends BaseEntity {
     @Column(name = "storage_type")
     private String storageType;
 
+    // Title + step descriptions + URLs, FULLTEXT-indexed for search; derived, never sent to clients
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    @Column(name = "search_text", columnDefinition = "MEDIUMTEXT")
+    private String searchText;
+
+    // Optimistic lock; also the base_version clients send with delta syncs
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Manual Getters and Setters
     public Long getId() {
         return id;
@@ -113,4 +127,21 @@ public class SnapGuide extends BaseEntity {
     public void setStorageType(String storageType) {
         this.storageType = storageType;
     }
+
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public String getSearchText() {
+        return searchText;
+    }
+
+    public void setSearchText(String searchText) {
+        this.searchText = searchText;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,87 @@
+package com.nrkgo.accounts.modules.snapsteps.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ss_guide_screenshots: which guides reference which screenshot hash. Blobs
+ * are shared across guides (the hash is the content), so a screenshot is
+ * readable by whoever owns a guide that references it, and by nobody else.
+ *
+ * Rows are keyed through external_id so the JPA and bulk JDBC write paths
+ * can both replace a guide's set right after writing it; deleting a guide
+ * drops its rows by FOREIGN KEY cascade.
+ */
+@Repository
+public class GuideScreenshotRefs {
+
+    private static final String DELETE_SQL = "DELETE FROM ss_guide_screenshots "
+            + "WHERE guide_id = (SELECT id FROM ss_guides WHERE external_id = ?)";
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO ss_guide_screenshots (guide_id, hash) "
+            + "SELECT id, ? FROM ss_guides WHERE external_id = ?";
+
+    // idx_screenshot_hash finds the referencing guides, the PK joins them to their owner
+    private static final String VISIBLE_SQL = "SELECT EXISTS (SELECT 1 FROM ss_guide_screenshots gs "
+            + "JOIN ss_guides g ON g.id = gs.guide_id WHERE gs.hash = ? AND g.user_id = ? AND g.org_id = ?)";
+
+    private static final String VISIBLE_IN_SQL = "SELECT DISTINCT gs.hash FROM ss_guide_screenshots gs "
+            + "JOIN ss_guides g ON g.id = gs.guide_id WHERE gs.hash IN (%s) AND g.user_id = ? AND g.org_id = ?";
+
+    private static final String REFERENCED_IN_SQL = "SELECT DISTINCT hash FROM ss_guide_screenshots "
+            + "WHERE hash IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GuideScreenshotRefs(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Replaces the screenshot set of each guide, keyed by external_id. */
+    public void replace(Map<String, ? extends Collection<String>> hashesByExternalId) {
+        if (hashesByExternalId.isEmpty())
+            return;
+        List<Object[]> deletes = new ArrayList<>(hashesByExternalId.size());
+        List<Object[]> inserts = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : hashesByExternalId.entrySet()) {
+            deletes.add(new Object[] { entry.getKey() });
+            for (String hash : entry.getValue())
+                inserts.add(new Object[] { hash, entry.getKey() });
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+        if (!inserts.isEmpty())
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+    }
+
+    /** The subset of hashes referenced by a guide of this user in this org. */
+    public Set<String> visibleHashes(Collection<String> hashes, Long userId, Long orgId) {
+        if (hashes.isEmpty())
+            return Collections.emptySet();
+        List<Object> args = new ArrayList<>(hashes);
+        args.add(userId);
+        args.add(orgId);
+        String sql = String.format(VISIBLE_IN_SQL, String.join(", ", Collections.nCopies(hashes.size(), "?")));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, args.toArray()));
+    }
+
+    /** The subset of hashes referenced by any guide (ScreenshotSweeper). */
+    public Set<String> referencedHashes(Collection<String> hashes) {
+        if (hashes.isEmpty())
+            return Collections.emptySet();
+        String sql = String.format(REFERENCED_IN_SQL, String.join(", ", Collections.nCopies(hashes.size(), "?")));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, hashes.toArray()));
+    }
+
+    /** True if a guide of this user in this org references the screenshot. */
+    public boolean isVisible(String hash, Long userId, Long orgId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(VISIBLE_SQL, Boolean.class, hash, userId, orgId));
+    }
+}
@@ -0,0 +1,154 @@
+package com.nrkgo.accounts.modules.snapsteps.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Batched INSERT ... ON DUPLICATE KEY UPDATE for ss_guides, keyed on the
+ * unique external_id. IDENTITY ids keep Hibernate from batching inserts, so
+ * bulk sync goes through JDBC directly; with rewriteBatchedStatements the
+ * driver sends each batch as one multi-row statement.
+ *
+ * An update bumps version (the delta sync base) and leaves created_* alone.
+ * A null total_steps/first_url keeps the stored value, as saveGuide does
+ * when a guide is saved without steps.
+ *
+ * The owner check is part of the write: every column is only updated when
+ * user_id and org_id match the incoming row, so a guide inserted
+ * concurrently by another user or org under the same external_id is left
+ * as it is. The outcome per guide is then read back under FOR UPDATE in the
+ * same transaction; the upsert already holds those row locks, so the
+ * answer is what this transaction wrote. The batch update counts cannot be
+ * used for this: with rewriteBatchedStatements the driver reports
+ * SUCCESS_NO_INFO per row, and with Connector/J's default CLIENT_FOUND_ROWS
+ * an untouched (foreign) row counts as 1, the same as an insert.
+ */
+@Repository
+public class SnapGuideBulkWriter {
+
+    // user_id and org_id are never assigned below, so this sees the stored owner in every clause
+    private static final String OWNED = "user_id = VALUES(user_id) AND org_id = VALUES(org_id)";
+
+    private static final String UPSERT_SQL = "INSERT INTO ss_guides (external_id, user_id, org_id, title, steps_json, "
+            + "total_steps, first_url, storage_type, search_text, version, created_by, created_time, modified_by, "
+            + "modified_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "title = IF(" + OWNED + ", VALUES(title), title), "
+            + "steps_json = IF(" + OWNED + ", VALUES(steps_json), steps_json), "
+            + "total_steps = IF(" + OWNED + ", COALESCE(VALUES(total_steps), total_steps), total_steps), "
+            + "first_url = IF(" + OWNED + ", COALESCE(VALUES(first_url), first_url), first_url), "
+            + "storage_type = IF(" + OWNED + ", VALUES(storage_type), storage_type), "
+            + "search_text = IF(" + OWNED + ", VALUES(search_text), search_text), "
+            + "version = IF(" + OWNED + ", version + 1, version), "
+            + "modified_by = IF(" + OWNED + ", VALUES(modified_by), modified_by), "
+            + "modified_time = IF(" + OWNED + ", VALUES(modified_time), modified_time)";
+
+    private static final String OUTCOME_SQL = "SELECT external_id, user_id, org_id, version FROM ss_guides "
+            + "WHERE external_id IN (%s) FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public SnapGuideBulkWriter(JdbcTemplate jdbcTemplate,
+            @Value("${app.guides.bulk-batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /** Per external_id outcome of upsert. */
+    public enum Outcome {
+        CREATED, UPDATED, FORBIDDEN
+    }
+
+    /**
+     * Writes the rows and returns each one's outcome: FORBIDDEN when the
+     * external_id belongs to another user or org and nothing was changed.
+     */
+    public Map<String, Outcome> upsert(List<Row> rows) {
+        if (rows.isEmpty())
+            return Collections.emptyMap();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+            ps.setString(1, row.externalId);
+            ps.setLong(2, row.userId);
+            ps.setLong(3, row.orgId);
+            ps.setString(4, row.title);
+            ps.setString(5, row.stepsJson);
+            if (row.totalSteps != null)
+                ps.setInt(6, row.totalSteps);
+            else
+                ps.setNull(6, Types.INTEGER);
+            ps.setString(7, row.firstUrl);
+            ps.setString(8, row.storageType);
+            ps.setString(9, row.searchText);
+            ps.setLong(10, row.userId);
+            ps.setLong(11, row.time);
+            ps.setLong(12, row.userId);
+            ps.setLong(13, row.time);
+        });
+        return outcomes(rows);
+    }
+
+    private Map<String, Outcome> outcomes(List<Row> rows) {
+        // external_id compares case-insensitively in MySQL, so the stored spelling may differ
+        Map<String, Row> byExternalId = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Row row : rows)
+            byExternalId.put(row.externalId, row);
+        Map<String, Outcome> outcomes = new HashMap<>();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Row> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            Object[] externalIds = chunk.stream().map(row -> row.externalId).toArray();
+            String sql = String.format(OUTCOME_SQL, String.join(", ", Collections.nCopies(externalIds.length, "?")));
+            jdbcTemplate.query(sql, rs -> {
+                Row row = byExternalId.get(rs.getString(1));
+                if (row == null)
+                    return;
+                if (row.userId != rs.getLong(2) || row.orgId != rs.getLong(3)) {
+                    outcomes.put(row.externalId, Outcome.FORBIDDEN);
+                } else {
+                    // Every update bumps version, so 0 means this transaction inserted the row
+                    outcomes.put(row.externalId, rs.getLong(4) == 0 ? Outcome.CREATED : Outcome.UPDATED);
+                }
+            }, externalIds);
+        }
+        return outcomes;
+    }
+
+    public static final class Row {
+        private final String externalId;
+        private final Long userId;
+        private final Long orgId;
+        private final String title;
+        private final String stepsJson;
+        private final Integer totalSteps;
+        private final String firstUrl;
+        private final String storageType;
+        private final String searchText;
+        private final long time;
+
+        public Row(String externalId, Long userId, Long orgId, String title, String stepsJson,
+                Integer totalSteps, String firstUrl, String storageType, String searchText, long time) {
+            this.externalId = externalId;
+            this.userId = userId;
+            this.orgId = orgId;
+            this.title = title;
+            this.stepsJson = stepsJson;
+            this.totalSteps = totalSteps;
+            this.firstUrl = firstUrl;
+            this.storageType = storageType;
+            this.searchText = searchText;
+            this.time = time;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+    }
+}
@@ -1,21 +1,102 @@
 package com.nrkgo.accounts.modules.snapsteps.repository;
 
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto;
 import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SnapGuideRepository extends JpaRepository<SnapGuide, Long> {
         List<SnapGuide> findByUserIdAndOrgId(Long userId, Long orgId);
 
-        org.springframework.data.domain.Page<SnapGuide> findByUserIdAndOrgId(Long userId, Long orgId,
+        // Forward-only cursor for full exports. MySQL Connector/J streams row by row
+        // only with fetch size Integer.MIN_VALUE; must be consumed inside a transaction.
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        })
+        @Query("SELECT g FROM SnapGuide g WHERE g.user.id = :userId AND g.org.id = :orgId")
+        Stream<SnapGuide> streamByUserIdAndOrgId(@Param("userId") Long userId, @Param("orgId") Long orgId);
+
+        // List views: summary columns only, steps_json is never read
+        String SUMMARY_SELECT = "SELECT new com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto("
+                        + "g.id, g.externalId, g.title, g.totalSteps, g.firstUrl, g.storageType, g.version, "
+                        + "g.createdBy, g.createdTime, g.modifiedBy, g.modifiedTime) FROM SnapGuide g ";
+
+        @Query(value = SUMMARY_SELECT + "WHERE g.user.id = :userId AND g.org.id = :orgId",
+                        countQuery = "SELECT COUNT(g) FROM SnapGuide g WHERE g.user.id = :userId AND g.org.id = :orgId")
+        org.springframework.data.domain.Page<SnapGuideSummaryDto> findSummariesByUserIdAndOrgId(
+                        @Param("userId") Long userId, @Param("orgId") Long orgId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Keyset listing, newest first; pageable only carries the limit (size + 1).
+        // NULL modified_time sorts lowest (MySQL, H2 MySQL mode), so those rows come last, by id
+        @Query(SUMMARY_SELECT + "WHERE g.user.id = :userId AND g.org.id = :orgId "
+                        + "ORDER BY g.modifiedTime DESC, g.id DESC")
+        List<SnapGuideSummaryDto> findSummariesFirstPage(@Param("userId") Long userId, @Param("orgId") Long orgId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query(SUMMARY_SELECT + "WHERE g.user.id = :userId AND g.org.id = :orgId "
+                        + "AND (g.modifiedTime < :modifiedTime OR (g.modifiedTime = :modifiedTime AND g.id < :id) "
+                        + "OR g.modifiedTime IS NULL) "
+                        + "ORDER BY g.modifiedTime DESC, g.id DESC")
+        List<SnapGuideSummaryDto> findSummariesAfter(@Param("userId") Long userId, @Param("orgId") Long orgId,
+                        @Param("modifiedTime") Long modifiedTime, @Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Past the last non-NULL row: only the NULL tail is left
+        @Query(SUMMARY_SELECT + "WHERE g.user.id = :userId AND g.org.id = :orgId "
+                        + "AND g.modifiedTime IS NULL AND g.id < :id "
+                        + "ORDER BY g.modifiedTime DESC, g.id DESC")
+        List<SnapGuideSummaryDto> findSummariesAfterNullModified(@Param("userId") Long userId,
+                        @Param("orgId") Long orgId, @Param("id") Long id,
                         org.springframework.data.domain.Pageable pageable);
 
-        org.springframework.data.domain.Page<SnapGuide> findByUserIdAndOrgIdAndTitleContainingIgnoreCase(Long userId,
-                        Long orgId, String title,
+        // title must have its LIKE wildcards escaped with '!' (GuideSearchText.toLikeLiteral)
+        @Query(value = SUMMARY_SELECT + "WHERE g.user.id = :userId AND g.org.id = :orgId "
+                        + "AND LOWER(g.title) LIKE LOWER(CONCAT('%', :title, '%')) ESCAPE '!'",
+                        countQuery = "SELECT COUNT(g) FROM SnapGuide g WHERE g.user.id = :userId AND g.org.id = :orgId "
+                                        + "AND LOWER(g.title) LIKE LOWER(CONCAT('%', :title, '%')) ESCAPE '!'")
+        org.springframework.data.domain.Page<SnapGuideSummaryDto> searchSummariesByTitle(
+                        @Param("userId") Long userId, @Param("orgId") Long orgId, @Param("title") String title,
                         org.springframework.data.domain.Pageable pageable);
 
         Optional<SnapGuide> findByExternalId(String externalId);
+
+        // Ranked FULLTEXT search over search_text; :query is a boolean-mode expression ("+term* ...")
+        @Query(value = "SELECT g.id FROM ss_guides g WHERE g.user_id = :userId AND g.org_id = :orgId "
+                        + "AND MATCH(g.search_text) AGAINST (:query IN BOOLEAN MODE) "
+                        + "ORDER BY MATCH(g.search_text) AGAINST (:query IN BOOLEAN MODE) DESC, g.id DESC",
+                        countQuery = "SELECT COUNT(*) FROM ss_guides g WHERE g.user_id = :userId AND g.org_id = :orgId "
+                                        + "AND MATCH(g.search_text) AGAINST (:query IN BOOLEAN MODE)",
+                        nativeQuery = true)
+        org.springframework.data.domain.Page<Long> searchIdsByRelevance(@Param("userId") Long userId,
+                        @Param("orgId") Long orgId, @Param("query") String query,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query(SUMMARY_SELECT + "WHERE g.id IN :ids")
+        List<SnapGuideSummaryDto> findSummariesByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+        // search_text backfill for rows written before the column existed: ids in primary-key order,
+        // then each guide's title and steps_json on its own, so only one LONGTEXT is held at a time
+        @Query("SELECT g.id FROM SnapGuide g WHERE g.searchText IS NULL AND g.id > :afterId ORDER BY g.id")
+        List<Long> findIdsWithoutSearchText(@Param("afterId") Long afterId,
+                        org.springframework.data.domain.Pageable limit);
+
+        // [title, stepsJson]; empty if the guide was deleted meanwhile
+        @Query("SELECT g.title, g.stepsJson FROM SnapGuide g WHERE g.id = :id")
+        List<Object[]> findSearchSource(@Param("id") Long id);
+
+        // Never overwrites a search_text that a save wrote since the row was read
+        @org.springframework.data.jpa.repository.Modifying
+        @Query("UPDATE SnapGuide g SET g.searchText = :searchText WHERE g.id = :id AND g.searchText IS NULL")
+        int updateSearchText(@Param("id") Long id, @Param("searchText") String searchText);
 }
@@ -0,0 +1,143 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Fills ss_guides.search_text for guides saved before the column existed,
+ * batch-size rows per short transaction in primary-key order. Once a pass
+ * finds nothing left it stops checking. Guides written since are indexed on
+ * save.
+ *
+ * A batch reads only ids; each guide's title and steps_json are then loaded
+ * as a scalar projection and dropped before the next one, so heap holds one
+ * steps_json at a time and nothing piles up in the persistence context. The
+ * UPDATE only fills a search_text that is still NULL.
+ *
+ * One node at a time: a run holds the MySQL named lock LOCK_NAME on a
+ * connection of its own, and nodes that cannot take it skip the run.
+ */
+@Component
+public class GuideSearchBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(GuideSearchBackfill.class);
+
+    static final String LOCK_NAME = "accounts.guide_search_backfill";
+
+    private final SnapGuideRepository guideRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private volatile boolean done;
+
+    public GuideSearchBackfill(SnapGuideRepository guideRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            @Value("${app.guides.search-backfill.enabled:true}") boolean enabled,
+            @Value("${app.guides.search-backfill.batch-size:50}") int batchSize) {
+        this.guideRepository = guideRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.guides.search-backfill.interval-ms:600000}", initialDelayString = "${app.guides.search-backfill.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled || done)
+            return;
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!tryLock(lockConnection)) {
+                log.debug("Guide search_text backfill is running on another node; skipping");
+                return;
+            }
+            try {
+                backfill();
+            } finally {
+                releaseLock(lockConnection);
+            }
+        } catch (SQLException e) {
+            log.warn("Guide search_text backfill skipped: could not take lock {}", LOCK_NAME, e);
+        }
+    }
+
+    private void backfill() {
+        long lastId = 0;
+        boolean filled = false;
+        try {
+            while (true) {
+                Long batchLastId = backfillBatch(lastId);
+                if (batchLastId == null)
+                    break;
+                filled = true;
+                lastId = batchLastId;
+            }
+            done = true;
+            if (filled)
+                log.info("Guide search_text backfill complete (up to id {})", lastId);
+        } catch (RuntimeException e) {
+            log.warn("Guide search_text backfill stopped at id {}; retrying next run", lastId, e);
+        }
+    }
+
+    /** Returns the last id handled, or null when no rows were left. */
+    private Long backfillBatch(long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = guideRepository.findIdsWithoutSearchText(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty())
+                return null;
+            for (Long id : ids) {
+                List<Object[]> source = guideRepository.findSearchSource(id);
+                if (source.isEmpty())
+                    continue; // deleted meanwhile
+                String title = (String) source.get(0)[0];
+                List<StepsJson.Step> steps;
+                try {
+                    steps = StepsJson.parse(objectMapper.getFactory(), (String) source.get(0)[1]);
+                } catch (IOException | IllegalStateException e) {
+                    steps = List.of(); // unparseable steps: index the title only
+                }
+                guideRepository.updateSearchText(id, GuideSearchText.fromSteps(title, steps));
+            }
+            return ids.get(ids.size() - 1);
+        });
+    }
+
+    // GET_LOCK with timeout 0: 1 = taken, 0 = held by another session
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+}
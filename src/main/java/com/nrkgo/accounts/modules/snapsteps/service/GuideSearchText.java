@@ -0,0 +1,106 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapStepDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds ss_guides.search_text (title, step descriptions, step URLs) and
+ * turns user input into a MySQL FULLTEXT boolean-mode query.
+ */
+final class GuideSearchText {
+
+    // Bounds the indexed text for very long guides; the first steps matter most
+    static final int MAX_LENGTH = 60000;
+
+    // InnoDB's default innodb_ft_min_token_size; shorter terms are not indexed
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_TERMS = 10;
+    private static final char LIKE_ESCAPE = '!';
+
+    private GuideSearchText() {
+    }
+
+    static String fromSteps(String title, List<StepsJson.Step> steps) {
+        StringBuilder sb = start(title);
+        for (StepsJson.Step step : steps) {
+            if (!append(sb, step.description) || !append(sb, step.url))
+                break;
+        }
+        return sb.toString();
+    }
+
+    static String fromDtos(String title, List<SnapStepDto> steps) {
+        StringBuilder sb = start(title);
+        if (steps != null) {
+            for (SnapStepDto step : steps) {
+                if (!append(sb, step.getDescription()) || !append(sb, step.getUrl()))
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Every term is required and prefix-matched ("+term*"). Returns null when
+     * no term is long enough to be in the index; callers then fall back to a
+     * title LIKE search.
+     */
+    static String toBooleanQuery(String input) {
+        if (input == null)
+            return null;
+        List<String> terms = new ArrayList<>();
+        for (String term : input.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.length() >= MIN_TERM_LENGTH && terms.size() < MAX_TERMS)
+                terms.add(term);
+        }
+        if (terms.isEmpty())
+            return null;
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms) {
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append('+').append(term).append('*');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escapes LIKE wildcards so user input matches literally; pair with
+     * ESCAPE '!' in the query. '!' rather than a backslash, which HQL and
+     * MySQL string literals both treat as an escape of their own.
+     */
+    static String toLikeLiteral(String input) {
+        StringBuilder sb = new StringBuilder(input.length() + 8);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_')
+                sb.append(LIKE_ESCAPE);
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    // --- Private helpers ---
+
+    private static StringBuilder start(String title) {
+        StringBuilder sb = new StringBuilder(256);
+        append(sb, title);
+        return sb;
+    }
+
+    /** Appends the part; false once the text is full. */
+    private static boolean append(StringBuilder sb, String part) {
+        if (part == null || part.isBlank())
+            return sb.length() < MAX_LENGTH;
+        int room = MAX_LENGTH - sb.length() - 1;
+        if (room <= 0)
+            return false;
+        if (sb.length() > 0)
+            sb.append(' ');
+        sb.append(part, 0, Math.min(part.length(), room));
+        return sb.length() < MAX_LENGTH;
+    }
+}
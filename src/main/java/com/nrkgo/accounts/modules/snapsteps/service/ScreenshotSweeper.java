@@ -0,0 +1,87 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.nrkgo.accounts.modules.snapsteps.repository.GuideScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Deletes screenshot blobs that no row in ss_guide_screenshots references,
+ * i.e. whose last guide was deleted or re-saved with other screenshots.
+ *
+ * Only blobs untouched for min-age-ms are candidates. An upload writes (or,
+ * for an existing blob, touches) the file before its guide is committed, so
+ * the grace period covers blobs whose reference is still in flight; the
+ * store re-checks the age right before deleting. Running on several nodes
+ * at once is harmless: deletes are idempotent.
+ */
+@Component
+public class ScreenshotSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenshotSweeper.class);
+
+    private final ScreenshotStore screenshotStore;
+    private final GuideScreenshotRefs screenshotRefs;
+    private final boolean enabled;
+    private final long minAgeMillis;
+    private final int batchSize;
+
+    public ScreenshotSweeper(ScreenshotStore screenshotStore,
+            GuideScreenshotRefs screenshotRefs,
+            @Value("${app.screenshots.sweep.enabled:true}") boolean enabled,
+            @Value("${app.screenshots.sweep.min-age-ms:86400000}") long minAgeMillis,
+            @Value("${app.screenshots.sweep.batch-size:500}") int batchSize) {
+        this.screenshotStore = screenshotStore;
+        this.screenshotRefs = screenshotRefs;
+        this.enabled = enabled;
+        this.minAgeMillis = Math.max(0, minAgeMillis);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.screenshots.sweep.interval-ms:86400000}", initialDelayString = "${app.screenshots.sweep.initial-delay-ms:600000}")
+    public void sweep() {
+        if (!enabled)
+            return;
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+        int checked = 0;
+        int deleted = 0;
+        try (Stream<String> hashes = screenshotStore.hashesOlderThan(cutoff)) {
+            Iterator<String> it = hashes.iterator();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == batchSize || !it.hasNext()) {
+                    checked += batch.size();
+                    deleted += deleteUnreferenced(batch, cutoff);
+                    batch.clear();
+                }
+            }
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.warn("Screenshot sweep stopped after {} blobs; retrying next run", checked, e);
+            return;
+        }
+        log.info("Screenshot sweep complete: {} blobs checked, {} unreferenced deleted", checked, deleted);
+    }
+
+    private int deleteUnreferenced(List<String> batch, long cutoff) throws IOException {
+        Set<String> referenced = screenshotRefs.referencedHashes(batch);
+        int deleted = 0;
+        for (String hash : batch) {
+            if (!referenced.contains(hash) && screenshotStore.deleteIfOlderThan(hash, cutoff))
+                deleted++;
+        }
+        return deleted;
+    }
+}
@@ -1,19 +1,51 @@
 package com.nrkgo.accounts.modules.snapsteps.service;
 
+import com.nrkgo.accounts.common.response.CursorPage;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideBulkResult;
 import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuidePatchDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto;
 import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
 import com.nrkgo.accounts.model.User;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface SnapGuideService {
         SnapGuide saveGuide(SnapGuideDto guideDto, User user, Long orgId);
 
+        /**
+         * Creates or updates many guides in one transaction. Invalid guides are
+         * reported in their result and skipped; the rest are written.
+         */
+        List<SnapGuideBulkResult> saveGuides(List<SnapGuideDto> guideDtos, User user, Long orgId);
+
+        /**
+         * Applies a delta sync to an existing guide. Throws
+         * OptimisticLockingFailureException when base_version is stale.
+         */
+        SnapGuide patchGuide(String id, SnapGuidePatchDto patch, User user, Long orgId);
+
         List<SnapGuide> getGuidesForUser(User user, Long orgId);
 
-        org.springframework.data.domain.Page<SnapGuide> getGuidesForUser(User user, Long orgId,
+        /**
+         * Hands every guide of the user in the org to the consumer, one at a time,
+         * without holding them all in memory. Each guide is detached after the
+         * consumer returns.
+         */
+        void streamGuidesForUser(User user, Long orgId, Consumer<SnapGuide> consumer);
+
+        /** List view: summaries only; steps_json is loaded by the detail lookups. */
+        org.springframework.data.domain.Page<SnapGuideSummaryDto> getGuidesForUser(User user, Long orgId,
                         org.springframework.data.domain.Pageable pageable);
 
-        org.springframework.data.domain.Page<SnapGuide> searchGuides(User user, Long orgId, String query,
+        /**
+         * Keyset page of summaries ordered by modified_time desc, id desc.
+         * A null cursor returns the first page. Guides without a modified_time
+         * come last, newest id first.
+         */
+        CursorPage<SnapGuideSummaryDto> getGuidesForUser(User user, Long orgId, String cursor, int size);
+
+        org.springframework.data.domain.Page<SnapGuideSummaryDto> searchGuides(User user, Long orgId, String query,
                         org.springframework.data.domain.Pageable pageable);
 
         SnapGuide getGuideById(String id, User user, Long orgId);
@@ -21,4 +53,10 @@ public interface SnapGuideService {
         SnapGuide getGuideByNumericId(Long id, User user, Long orgId);
 
         void deleteGuide(String id, User user, Long orgId);
+
+        /**
+         * True if one of the user's guides in the org references the screenshot.
+         * Blobs are shared by hash, so this is what scopes screenshot reads.
+         */
+        boolean canViewScreenshot(String hash, User user, Long orgId);
 }
@@ -2,15 +2,39 @@ package com.nrkgo.accounts.modules.snapsteps.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.common.response.CursorPage;
+import com.nrkgo.accounts.common.util.KeysetCursor;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideBulkResult;
 import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuidePatchDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapStepDto;
 import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
+import com.nrkgo.accounts.modules.snapsteps.repository.GuideScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideBulkWriter;
 import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideRepository;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
 import com.nrkgo.accounts.model.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class SnapGuideServiceImpl implements SnapGuideService {
@@ -18,13 +42,28 @@ public class SnapGuideServiceImpl implements SnapGuideService {
     private final SnapGuideRepository guideRepository;
     private final com.nrkgo.accounts.repository.OrganizationRepository organizationRepository;
     private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ScreenshotStore screenshotStore;
+    private final SnapGuideBulkWriter bulkWriter;
+    private final GuideScreenshotRefs screenshotRefs;
+    private final int bulkMaxItems;
 
     public SnapGuideServiceImpl(SnapGuideRepository guideRepository,
             com.nrkgo.accounts.repository.OrganizationRepository organizationRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            ScreenshotStore screenshotStore,
+            SnapGuideBulkWriter bulkWriter,
+            GuideScreenshotRefs screenshotRefs,
+            @Value("${app.guides.bulk-max-items:500}") int bulkMaxItems) {
         this.guideRepository = guideRepository;
         this.organizationRepository = organizationRepository;
         this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.screenshotStore = screenshotStore;
+        this.bulkWriter = bulkWriter;
+        this.screenshotRefs = screenshotRefs;
+        this.bulkMaxItems = bulkMaxItems;
     }
 
     @Override
@@ -40,6 +79,11 @@ public class SnapGuideServiceImpl implements SnapGuideService {
                 .orElseThrow(() -> new IllegalArgumentException("Organization not found with ID: " + orgId));
 
         Optional<SnapGuide> existing = guideRepository.findByExternalId(extId);
+        // Same rule as bulk sync: an external_id taken by another user or org is not overwritten
+        if (existing.isPresent() && (!existing.get().getUser().getId().equals(user.getId())
+                || !existing.get().getOrg().getId().equals(orgId))) {
+            throw new SecurityException("Unauthorized access to guide");
+        }
 
         SnapGuide guide = existing.orElse(new SnapGuide());
         guide.setExternalId(extId);
@@ -47,6 +91,7 @@ public class SnapGuideServiceImpl implements SnapGuideService {
         guide.setUser(user);
         guide.setOrg(org);
         guide.setStorageType(guideDto.getStorageType());
+        guide.setSearchText(GuideSearchText.fromDtos(guide.getTitle(), guideDto.getSteps()));
 
         if (guideDto.getSteps() != null) {
             guide.setTotalSteps(guideDto.getSteps().size());
@@ -63,6 +108,8 @@ public class SnapGuideServiceImpl implements SnapGuideService {
         guide.setModifiedBy(user.getId());
         guide.setModifiedTime(now);
 
+        externalizeScreenshots(guideDto.getSteps(), user, orgId);
+
         try {
             String json = objectMapper.writeValueAsString(guideDto.getSteps());
             guide.setStepsJson(json);
@@ -70,7 +117,152 @@ public class SnapGuideServiceImpl implements SnapGuideService {
             throw new RuntimeException("Failed to serialize steps to JSON", e);
         }
 
-        return guideRepository.save(guide);
+        SnapGuide saved = guideRepository.save(guide);
+        screenshotRefs.replace(Map.of(extId, screenshotHashes(guideDto.getSteps())));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<SnapGuideBulkResult> saveGuides(List<SnapGuideDto> guideDtos, User user, Long orgId) {
+        if (guideDtos == null || guideDtos.isEmpty()) {
+            throw new IllegalArgumentException("No guides to save.");
+        }
+        if (guideDtos.size() > bulkMaxItems) {
+            throw new IllegalArgumentException("At most " + bulkMaxItems + " guides can be saved per request.");
+        }
+        if (!organizationRepository.existsById(orgId)) {
+            throw new IllegalArgumentException("Organization not found with ID: " + orgId);
+        }
+
+        long now = System.currentTimeMillis();
+        SnapGuideBulkResult[] results = new SnapGuideBulkResult[guideDtos.size()];
+        List<SnapGuideBulkWriter.Row> rows = new ArrayList<>(guideDtos.size());
+        Map<String, Integer> positions = new HashMap<>();
+        Map<String, Set<String>> stepScreenshots = new HashMap<>();
+        // external_id is unique case-insensitively in MySQL: "abc" and "ABC" are the same guide
+        Set<String> seen = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < guideDtos.size(); i++) {
+            SnapGuideDto dto = guideDtos.get(i);
+            String extId = (dto != null) ? dto.getExternalId() : null;
+            if (extId == null || extId.trim().isEmpty()) {
+                results[i] = new SnapGuideBulkResult(extId, SnapGuideBulkResult.ERROR,
+                        "The field 'external_id' is required for syncing guides.");
+                continue;
+            }
+            if (!seen.add(extId)) {
+                results[i] = new SnapGuideBulkResult(extId, SnapGuideBulkResult.ERROR,
+                        "Duplicate external_id in request");
+                continue;
+            }
+
+            try {
+                rows.add(toRow(dto, user, orgId, now));
+            } catch (IllegalArgumentException e) {
+                results[i] = new SnapGuideBulkResult(extId, SnapGuideBulkResult.ERROR, e.getMessage());
+                continue;
+            }
+            positions.put(extId, i);
+            stepScreenshots.put(extId, screenshotHashes(dto.getSteps()));
+        }
+
+        // Ownership is decided by the write itself, so a concurrent insert under the same external_id
+        // by another user or org is never overwritten
+        Map<String, SnapGuideBulkWriter.Outcome> outcomes = bulkWriter.upsert(rows);
+        Map<String, Set<String>> screenshots = new HashMap<>();
+        for (SnapGuideBulkWriter.Row row : rows) {
+            String extId = row.getExternalId();
+            SnapGuideBulkWriter.Outcome outcome = outcomes.getOrDefault(extId, SnapGuideBulkWriter.Outcome.FORBIDDEN);
+            SnapGuideBulkResult result;
+            if (outcome == SnapGuideBulkWriter.Outcome.FORBIDDEN) {
+                result = new SnapGuideBulkResult(extId, SnapGuideBulkResult.ERROR, "Unauthorized access to guide");
+            } else {
+                result = new SnapGuideBulkResult(extId, outcome == SnapGuideBulkWriter.Outcome.CREATED
+                        ? SnapGuideBulkResult.CREATED : SnapGuideBulkResult.UPDATED, null);
+                screenshots.put(extId, stepScreenshots.get(extId));
+            }
+            results[positions.get(extId)] = result;
+        }
+        screenshotRefs.replace(screenshots);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public SnapGuide patchGuide(String id, SnapGuidePatchDto patch, User user, Long orgId) {
+        if (patch.getBaseVersion() == null) {
+            throw new IllegalArgumentException("The field 'base_version' is required for delta sync.");
+        }
+
+        SnapGuide guide = getGuideById(id, user, orgId);
+        if (!patch.getBaseVersion().equals(guide.getVersion())) {
+            throw new OptimisticLockingFailureException("Guide " + id + " is at version " + guide.getVersion()
+                    + ", not " + patch.getBaseVersion());
+        }
+
+        List<StepsJson.Step> steps;
+        try {
+            steps = StepsJson.parse(objectMapper.getFactory(), guide.getStepsJson());
+
+            if (patch.getRemove() != null && !patch.getRemove().isEmpty()) {
+                Set<String> removed = new HashSet<>(patch.getRemove());
+                steps.removeIf(step -> removed.contains(step.id));
+            }
+
+            if (patch.getUpsert() != null && !patch.getUpsert().isEmpty()) {
+                externalizeScreenshots(patch.getUpsert(), user, orgId);
+                Map<String, StepsJson.Step> byId = new HashMap<>();
+                for (StepsJson.Step step : steps) {
+                    if (step.id != null)
+                        byId.put(step.id, step);
+                }
+                for (SnapStepDto dto : patch.getUpsert()) {
+                    if (dto.getId() == null || dto.getId().isBlank()) {
+                        throw new IllegalArgumentException("Every upserted step needs an 'id'.");
+                    }
+                    String raw = objectMapper.writeValueAsString(dto);
+                    StepsJson.Step existing = byId.get(dto.getId());
+                    if (existing != null) {
+                        existing.raw = raw;
+                        existing.url = dto.getUrl();
+                        existing.description = dto.getDescription();
+                        existing.screenshot = dto.getScreenshot();
+                    } else {
+                        StepsJson.Step added = new StepsJson.Step(dto.getId(), dto.getUrl(), dto.getDescription(),
+                                dto.getScreenshot(), raw);
+                        steps.add(added);
+                        byId.put(added.id, added);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to apply step changes to guide " + id, e);
+        }
+
+        if (patch.getOrder() != null) {
+            steps = reorder(steps, patch.getOrder());
+        }
+
+        if (patch.getTitle() != null) {
+            guide.setTitle(patch.getTitle());
+        }
+        guide.setStepsJson(StepsJson.write(steps));
+        guide.setSearchText(GuideSearchText.fromSteps(guide.getTitle(), steps));
+        guide.setTotalSteps(steps.size());
+        guide.setFirstUrl(steps.isEmpty() ? null : steps.get(0).url);
+        guide.setModifiedBy(user.getId());
+        guide.setModifiedTime(System.currentTimeMillis());
+
+        // Flush so the version in the response is the one the next patch must send
+        SnapGuide saved = guideRepository.saveAndFlush(guide);
+        Set<String> hashes = new HashSet<>();
+        for (StepsJson.Step step : steps) {
+            String hash = ScreenshotRefs.hashOf(step.screenshot);
+            if (hash != null)
+                hashes.add(hash);
+        }
+        screenshotRefs.replace(Map.of(saved.getExternalId(), hashes));
+        return saved;
     }
 
     @Override
@@ -79,15 +271,79 @@ public class SnapGuideServiceImpl implements SnapGuideService {
     }
 
     @Override
-    public org.springframework.data.domain.Page<SnapGuide> getGuidesForUser(User user, Long orgId,
+    @Transactional(readOnly = true)
+    public void streamGuidesForUser(User user, Long orgId, Consumer<SnapGuide> consumer) {
+        try (Stream<SnapGuide> guides = guideRepository.streamByUserIdAndOrgId(user.getId(), orgId)) {
+            guides.forEach(guide -> {
+                consumer.accept(guide);
+                // Keep the persistence context (and heap) flat regardless of guide count
+                entityManager.detach(guide);
+            });
+        }
+    }
+
+    @Override
+    public org.springframework.data.domain.Page<SnapGuideSummaryDto> getGuidesForUser(User user, Long orgId,
             org.springframework.data.domain.Pageable pageable) {
-        return guideRepository.findByUserIdAndOrgId(user.getId(), orgId, pageable);
+        return guideRepository.findSummariesByUserIdAndOrgId(user.getId(), orgId, pageable);
     }
 
     @Override
-    public org.springframework.data.domain.Page<SnapGuide> searchGuides(User user, Long orgId, String query,
+    public CursorPage<SnapGuideSummaryDto> getGuidesForUser(User user, Long orgId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null && after.getSortValue() == null && !after.isNullSortValue()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // One extra row tells whether another page exists, without a COUNT(*)
+        org.springframework.data.domain.Pageable limit = org.springframework.data.domain.PageRequest.of(0, size + 1);
+        List<SnapGuideSummaryDto> rows;
+        if (after == null) {
+            rows = guideRepository.findSummariesFirstPage(user.getId(), orgId, limit);
+        } else if (after.isNullSortValue()) {
+            rows = guideRepository.findSummariesAfterNullModified(user.getId(), orgId, after.getId(), limit);
+        } else {
+            rows = guideRepository.findSummariesAfter(user.getId(), orgId, after.getSortValue(), after.getId(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<SnapGuideSummaryDto> items = rows.subList(0, size);
+        SnapGuideSummaryDto last = items.get(size - 1);
+        KeysetCursor next = (last.getModifiedTime() != null) ? new KeysetCursor(last.getModifiedTime(), last.getId())
+                : KeysetCursor.afterNullSortValue(last.getId());
+        return new CursorPage<>(items, next.encode());
+    }
+
+    @Override
+    public org.springframework.data.domain.Page<SnapGuideSummaryDto> searchGuides(User user, Long orgId, String query,
             org.springframework.data.domain.Pageable pageable) {
-        return guideRepository.findByUserIdAndOrgIdAndTitleContainingIgnoreCase(user.getId(), orgId, query, pageable);
+        String booleanQuery = GuideSearchText.toBooleanQuery(query);
+        if (booleanQuery == null) {
+            // Only very short terms: not in the FULLTEXT index, match titles instead
+            return guideRepository.searchSummariesByTitle(user.getId(), orgId,
+                    GuideSearchText.toLikeLiteral(query), pageable);
+        }
+
+        // Relevance order comes from the query itself, so the caller's sort is dropped
+        org.springframework.data.domain.Page<Long> ids = guideRepository.searchIdsByRelevance(user.getId(), orgId,
+                booleanQuery, org.springframework.data.domain.PageRequest.of(pageable.getPageNumber(),
+                        pageable.getPageSize()));
+        if (ids.isEmpty()) {
+            return new org.springframework.data.domain.PageImpl<>(List.of(), ids.getPageable(),
+                    ids.getTotalElements());
+        }
+
+        Map<Long, SnapGuideSummaryDto> byId = new HashMap<>();
+        for (SnapGuideSummaryDto summary : guideRepository.findSummariesByIdIn(ids.getContent()))
+            byId.put(summary.getId(), summary);
+        List<SnapGuideSummaryDto> ranked = new ArrayList<>(ids.getNumberOfElements());
+        for (Long id : ids.getContent()) {
+            SnapGuideSummaryDto summary = byId.get(id);
+            if (summary != null)
+                ranked.add(summary);
+        }
+        return new org.springframework.data.domain.PageImpl<>(ranked, ids.getPageable(), ids.getTotalElements());
     }
 
     @Override
@@ -118,4 +374,121 @@ public class SnapGuideServiceImpl implements SnapGuideService {
         SnapGuide guide = getGuideById(id, user, orgId);
         guideRepository.delete(guide);
     }
+
+    @Override
+    public boolean canViewScreenshot(String hash, User user, Long orgId) {
+        return orgId != null && screenshotRefs.isVisible(hash, user.getId(), orgId);
+    }
+
+    // --- Private helpers ---
+
+    private SnapGuideBulkWriter.Row toRow(SnapGuideDto dto, User user, Long orgId, long now) {
+        List<SnapStepDto> steps = dto.getSteps();
+        externalizeScreenshots(steps, user, orgId);
+        Integer totalSteps = null;
+        String firstUrl = null;
+        if (steps != null) {
+            totalSteps = steps.size();
+            if (!steps.isEmpty())
+                firstUrl = steps.get(0).getUrl();
+        }
+        String stepsJson;
+        try {
+            stepsJson = objectMapper.writeValueAsString(steps);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize steps to JSON", e);
+        }
+        String title = dto.getTitle() != null ? dto.getTitle() : "Untitled Workflow";
+        return new SnapGuideBulkWriter.Row(dto.getExternalId(), user.getId(), orgId, title,
+                stepsJson, totalSteps, firstUrl, dto.getStorageType(),
+                GuideSearchText.fromDtos(title, steps), now);
+    }
+
+    private static List<StepsJson.Step> reorder(List<StepsJson.Step> steps, List<String> order) {
+        Map<String, StepsJson.Step> byId = new HashMap<>();
+        for (StepsJson.Step step : steps) {
+            if (step.id != null)
+                byId.put(step.id, step);
+        }
+        if (order.size() != steps.size() || byId.size() != steps.size()) {
+            throw new IllegalArgumentException("'order' must list every step id exactly once.");
+        }
+        List<StepsJson.Step> reordered = new ArrayList<>(steps.size());
+        for (String stepId : order) {
+            StepsJson.Step step = byId.remove(stepId);
+            if (step == null) {
+                throw new IllegalArgumentException("'order' must list every step id exactly once.");
+            }
+            reordered.add(step);
+        }
+        return reordered;
+    }
+
+    private static Set<String> screenshotHashes(List<SnapStepDto> steps) {
+        Set<String> hashes = new HashSet<>();
+        if (steps != null) {
+            for (SnapStepDto step : steps) {
+                String hash = ScreenshotRefs.hashOf(step.getScreenshot());
+                if (hash != null)
+                    hashes.add(hash);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Moves inline base64 data-URL screenshots into the ScreenshotStore and
+     * replaces them with hash references, so steps_json stays small and
+     * identical screenshots are stored once. Plain URLs and unsupported
+     * types are left untouched.
+     *
+     * A reference sent by the client is only accepted if its bytes were
+     * uploaded in this request or one of the user's guides in the org
+     * already references it. Saving it grants read access to the blob, so
+     * a foreign hash would otherwise expose another tenant's screenshot.
+     */
+    private void externalizeScreenshots(List<SnapStepDto> steps, User user, Long orgId) {
+        if (steps == null)
+            return;
+        Set<String> stored = new HashSet<>();
+        Map<String, SnapStepDto> referenced = new HashMap<>();
+        for (SnapStepDto step : steps) {
+            String screenshot = step.getScreenshot();
+            String refHash = ScreenshotRefs.hashOf(screenshot);
+            if (refHash != null) {
+                referenced.putIfAbsent(refHash, step);
+                continue;
+            }
+            if (screenshot == null || !screenshot.startsWith("data:"))
+                continue;
+            int marker = screenshot.indexOf(";base64,");
+            if (marker < 0)
+                continue;
+            String mediaType = screenshot.substring("data:".length(), marker);
+            if (!ScreenshotRefs.isSupported(mediaType))
+                continue;
+            byte[] bytes;
+            try {
+                bytes = Base64.getMimeDecoder().decode(screenshot.substring(marker + ";base64,".length()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid screenshot data for step " + step.getId());
+            }
+            try {
+                String hash = screenshotStore.put(bytes);
+                stored.add(hash);
+                step.setScreenshot(ScreenshotRefs.toRef(hash, mediaType));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store screenshot for step " + step.getId(), e);
+            }
+        }
+
+        referenced.keySet().removeAll(stored);
+        if (referenced.isEmpty())
+            return;
+        referenced.keySet().removeAll(screenshotRefs.visibleHashes(referenced.keySet(), user.getId(), orgId));
+        if (!referenced.isEmpty()) {
+            SnapStepDto step = referenced.values().iterator().next();
+            throw new IllegalArgumentException("Unknown screenshot reference for step " + step.getId());
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a stored steps_json array into per-step raw JSON slices without
+ * binding them, so a delta sync only re-serializes the steps it touches.
+ * The tokenizer reads each step's "id", "url" and "description" (for the
+ * search text) and "screenshot" (for the screenshot references) and skips
+ * everything else without materializing it.
+ */
+final class StepsJson {
+
+    static final class Step {
+        final String id;
+        String url;
+        String description;
+        String screenshot;
+        String raw;
+
+        Step(String id, String url, String description, String screenshot, String raw) {
+            this.id = id;
+            this.url = url;
+            this.description = description;
+            this.screenshot = screenshot;
+            this.raw = raw;
+        }
+    }
+
+    private StepsJson() {
+    }
+
+    static List<Step> parse(JsonFactory factory, String json) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        if (json == null || json.isBlank())
+            return steps;
+
+        try (JsonParser parser = factory.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL)
+                return steps;
+            if (token != JsonToken.START_ARRAY)
+                throw new IllegalStateException("steps_json is not a JSON array");
+
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT)
+                    throw new IllegalStateException("steps_json contains a non-object step");
+                int start = (int) parser.currentTokenLocation().getCharOffset();
+                String id = null;
+                String url = null;
+                String description = null;
+                String screenshot = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("id".equals(field) && value.isScalarValue())
+                        id = parser.getValueAsString();
+                    else if ("url".equals(field) && value.isScalarValue())
+                        url = parser.getValueAsString();
+                    else if ("description".equals(field) && value.isScalarValue())
+                        description = parser.getValueAsString();
+                    else if ("screenshot".equals(field) && value.isScalarValue())
+                        screenshot = parser.getValueAsString();
+                    else
+                        parser.skipChildren();
+                }
+                int end = (int) parser.currentLocation().getCharOffset();
+                steps.add(new Step(id, url, description, screenshot, json.substring(start, end)));
+            }
+        }
+        return steps;
+    }
+
+    static String write(List<Step> steps) {
+        int length = 2;
+        for (Step step : steps)
+            length += step.raw.length() + 1;
+        StringBuilder sb = new StringBuilder(length);
+        sb.append('[');
+        for (int i = 0; i < steps.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(steps.get(i).raw);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,143 @@
+package com.nrkgo.accounts.modules.snapsteps.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * Filesystem backend: blobs live at {root}/{hash[0..2]}/{hash[2..4]}/{hash}.
+ *
+ * Writes go to a temp file in the target directory and are renamed into
+ * place, so a reader never sees a partial blob and concurrent uploads of the
+ * same screenshot are harmless. Reads use FileChannel.transferTo, which lets
+ * the kernel copy file pages straight to the target without staging them in
+ * the Java heap.
+ *
+ * Every node must see the same directory (NFS, EFS, a shared volume): a
+ * blob written on one node is served by whichever node gets the read. There
+ * is no default, so a node started without app.screenshots.local.path
+ * (SCREENSHOT_DIR) fails at startup instead of writing to a private disk.
+ *
+ * The file's modification time is the blob's last upload: re-uploading an
+ * existing blob touches it, which is what the orphan sweep's grace period
+ * is measured against.
+ */
+@Component
+@ConditionalOnProperty(name = "app.screenshots.store", havingValue = "local", matchIfMissing = true)
+public class LocalScreenshotStore implements ScreenshotStore {
+
+    private final Path root;
+
+    public LocalScreenshotStore(@Value("${app.screenshots.local.path:}") String root) throws IOException {
+        if (root == null || root.isBlank()) {
+            throw new IllegalStateException("app.screenshots.local.path (SCREENSHOT_DIR) must be set to a directory "
+                    + "shared by all nodes");
+        }
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+        if (!Files.isWritable(this.root))
+            throw new IllegalStateException("Screenshot directory is not writable: " + this.root);
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256Hex(content);
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            // dedup: same bytes already stored; the touch keeps the sweep off it until the guide is saved
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            return hash;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, content, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Lost a race with an identical upload; the stored blob is the same
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return ScreenshotStore.isValidHash(hash) && Files.exists(pathFor(hash));
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        if (!exists(hash))
+            return -1;
+        return Files.size(pathFor(hash));
+    }
+
+    @Override
+    public void transferTo(String hash, WritableByteChannel target) throws IOException {
+        if (!ScreenshotStore.isValidHash(hash))
+            throw new IllegalArgumentException("Invalid screenshot hash: " + hash);
+        try (FileChannel channel = FileChannel.open(pathFor(hash), StandardOpenOption.READ)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size)
+                position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public Stream<String> hashesOlderThan(long cutoffMillis) throws IOException {
+        // Blobs sit exactly three levels down: {aa}/{bb}/{hash}; temp files never have a valid hash name
+        return Files.find(root, 3, (path, attrs) -> attrs.isRegularFile()
+                && attrs.lastModifiedTime().toMillis() < cutoffMillis
+                && ScreenshotStore.isValidHash(path.getFileName().toString()))
+                .map(path -> path.getFileName().toString());
+    }
+
+    @Override
+    public boolean deleteIfOlderThan(String hash, long cutoffMillis) throws IOException {
+        if (!ScreenshotStore.isValidHash(hash))
+            return false;
+        Path file = pathFor(hash);
+        if (!Files.exists(file) || Files.getLastModifiedTime(file).toMillis() >= cutoffMillis)
+            return false;
+        return Files.deleteIfExists(file);
+    }
+
+    @Override
+    public Path localFile(String hash) {
+        return exists(hash) ? pathFor(hash) : null;
+    }
+
+    // --- Private helpers ---
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String sha256Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.nrkgo.accounts.modules.snapsteps.storage;
+
+import java.util.Map;
+
+/**
+ * Format of the screenshot references kept in steps_json:
+ * "/snapsteps/api/screenshots/{sha256}.{ext}". The reference is both the
+ * content hash and a path the clients can load relative to the API base;
+ * the extension only carries the media type for serving.
+ */
+public final class ScreenshotRefs {
+
+    public static final String PATH_PREFIX = "/snapsteps/api/screenshots/";
+
+    private static final Map<String, String> EXTENSION_BY_TYPE = Map.of(
+            "image/png", "png",
+            "image/jpeg", "jpg",
+            "image/webp", "webp",
+            "image/gif", "gif");
+
+    private static final Map<String, String> TYPE_BY_EXTENSION = Map.of(
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "webp", "image/webp",
+            "gif", "image/gif");
+
+    private ScreenshotRefs() {
+    }
+
+    public static boolean isSupported(String mediaType) {
+        return mediaType != null && EXTENSION_BY_TYPE.containsKey(mediaType);
+    }
+
+    /** Returns the reference, or null if the media type is not a supported image. */
+    public static String toRef(String hash, String mediaType) {
+        String extension = EXTENSION_BY_TYPE.get(mediaType);
+        return extension != null ? PATH_PREFIX + hash + "." + extension : null;
+    }
+
+    /** Returns the media type for a reference extension, or null if unsupported. */
+    public static String mediaTypeFor(String extension) {
+        return extension != null ? TYPE_BY_EXTENSION.get(extension) : null;
+    }
+
+    /** Returns the hash of a step's screenshot reference, or null if it is not one. */
+    public static String hashOf(String screenshot) {
+        if (screenshot == null || !screenshot.startsWith(PATH_PREFIX))
+            return null;
+        int start = PATH_PREFIX.length();
+        int end = start + 64;
+        if (screenshot.length() <= end || screenshot.charAt(end) != '.')
+            return null;
+        String hash = screenshot.substring(start, end);
+        return ScreenshotStore.isValidHash(hash) ? hash : null;
+    }
+}
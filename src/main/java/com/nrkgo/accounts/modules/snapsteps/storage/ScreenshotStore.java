@@ -0,0 +1,64 @@
+package com.nrkgo.accounts.modules.snapsteps.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for step screenshots. Blobs are keyed by the
+ * lowercase hex SHA-256 of their bytes, so identical screenshots across
+ * guides are stored once and a key never changes meaning.
+ *
+ * Blobs are shared by every guide with the same image, so nothing deletes
+ * one when a guide goes away; ScreenshotSweeper removes blobs that no guide
+ * references any more.
+ *
+ * The active backend is chosen by app.screenshots.store (default "local").
+ * A remote backend (S3, GCS, ...) is another bean implementing this
+ * interface, conditional on its own property value.
+ */
+public interface ScreenshotStore {
+
+    /** Stores the bytes if not already present and returns their hash. */
+    String put(byte[] content) throws IOException;
+
+    boolean exists(String hash);
+
+    /** Blob size in bytes, or -1 if absent. */
+    long size(String hash) throws IOException;
+
+    /** Copies the blob to the target channel. */
+    void transferTo(String hash, WritableByteChannel target) throws IOException;
+
+    /**
+     * Hashes of the blobs last written (or re-uploaded) before the cutoff,
+     * in epoch millis. The caller must close the stream.
+     */
+    Stream<String> hashesOlderThan(long cutoffMillis) throws IOException;
+
+    /**
+     * Deletes the blob unless it was written or re-uploaded since the
+     * cutoff, so an upload racing the sweep keeps its blob.
+     */
+    boolean deleteIfOlderThan(String hash, long cutoffMillis) throws IOException;
+
+    /**
+     * The blob's file on local disk, if this backend has one, so the servlet
+     * container can send it with sendfile. Remote backends return null.
+     */
+    default Path localFile(String hash) {
+        return null;
+    }
+
+    static boolean isValidHash(String hash) {
+        if (hash == null || hash.length() != 64)
+            return false;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')))
+                return false;
+        }
+        return true;
+    }
+}
@@ -2,6 +2,9 @@ package com.nrkgo.accounts.repository;
 
 import com.nrkgo.accounts.model.Digest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,6 +15,21 @@ public interface DigestRepository extends JpaRepository<Digest, Long> {
     Optional<Digest> findByToken(String token);
 
     Optional<Digest> findByEntityIdAndEntityType(String entityId, String entityType);
+
+    Optional<Digest> findByOrgUserIdAndEntityType(Long orgUserId, String entityType);
     
     void deleteByToken(String token);
+
+    // --- Used by ExpiredRecordReaper (bounded deletes by primary-key range) ---
+
+    @Query("SELECT MIN(d.id) FROM Digest d")
+    Long findMinId();
+
+    @Query("SELECT MAX(d.id) FROM Digest d")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM Digest d WHERE d.id >= :fromId AND d.id < :toId AND d.expiryTime < :expiredBefore")
+    int deleteExpiredInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+            @Param("expiredBefore") Long expiredBefore);
 }
@@ -0,0 +1,56 @@
+package com.nrkgo.accounts.repository;
+
+import com.nrkgo.accounts.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /*
+     * The drainer's claim, as two queries so each is one index range read in
+     * index order: an OR across the two states could use neither index, and
+     * FOR UPDATE would then lock every row the scan and filesort touch,
+     * stalling the outbox inserts of signups and invites. SKIP LOCKED lets
+     * several nodes drain concurrently without waiting on each other. Both
+     * must run inside a transaction (MySQL 8+).
+     */
+
+    /** Locks up to :limit PENDING rows whose next attempt is due (idx_outbox_status_next). */
+    @Query(value = "SELECT * FROM email_outbox " +
+            "WHERE status = 0 AND next_attempt_time <= :now " +
+            "ORDER BY next_attempt_time " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDuePending(@Param("now") Long now, @Param("limit") int limit);
+
+    /**
+     * Locks up to :limit PROCESSING rows whose claim expired, i.e. a node died
+     * mid-send (idx_outbox_status_claimed).
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+            "WHERE status = 1 AND claimed_until < :now " +
+            "ORDER BY claimed_until " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockExpiredClaims(@Param("now") Long now, @Param("limit") int limit);
+
+    long countByStatus(Integer status);
+
+    // --- Used by ExpiredRecordReaper ---
+
+    @Query("SELECT MIN(o.id) FROM EmailOutbox o")
+    Long findMinId();
+
+    @Query("SELECT MAX(o.id) FROM EmailOutbox o")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox o WHERE o.id >= :fromId AND o.id < :toId " +
+            "AND o.status = 2 AND o.sentTime < :sentBefore")
+    int deleteSentInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+            @Param("sentBefore") Long sentBefore);
+}
@@ -26,7 +26,7 @@ public interface OrgUserRepository extends JpaRepository<OrgUser, Long> {
        @org.springframework.data.jpa.repository.Query("SELECT new com.nrkgo.accounts.dto.OrgMemberResponse(ou.id, u.email, r.name, ou.designation, u.firstName, u.lastName, ou.status, ou.createdTime, ou.roleId, d.token) "
                      +
                      "FROM OrgUser ou JOIN User u ON ou.userId = u.id JOIN Role r ON ou.roleId = r.id " +
-                     "LEFT JOIN Digest d ON d.entityId = CAST(ou.id as string) AND d.entityType = 'INVITE' " +
+                     "LEFT JOIN Digest d ON d.orgUserId = ou.id AND d.entityType = 'INVITE' " +
                      "WHERE ou.orgId = :orgId")
        List<com.nrkgo.accounts.dto.OrgMemberResponse> findMembersByOrgId(
                      @org.springframework.data.repository.query.Param("orgId") Long orgId);
@@ -34,10 +34,38 @@ public interface OrgUserRepository extends JpaRepository<OrgUser, Long> {
        @org.springframework.data.jpa.repository.Query("SELECT new com.nrkgo.accounts.dto.OrgMemberResponse(ou.id, u.email, r.name, ou.designation, u.firstName, u.lastName, ou.status, ou.createdTime, ou.roleId, d.token) "
                      +
                      "FROM OrgUser ou JOIN User u ON ou.userId = u.id JOIN Role r ON ou.roleId = r.id " +
-                     "LEFT JOIN Digest d ON d.entityId = CAST(ou.id as string) AND d.entityType = 'INVITE' " +
+                     "LEFT JOIN Digest d ON d.orgUserId = ou.id AND d.entityType = 'INVITE' " +
                      "WHERE ou.orgId = :orgId AND " +
                      "(LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')))")
        List<com.nrkgo.accounts.dto.OrgMemberResponse> findMembersByOrgIdAndSearch(
                      @org.springframework.data.repository.query.Param("orgId") Long orgId,
                      @org.springframework.data.repository.query.Param("search") String search);
+
+       // Keyset listing by membership id; (org_id) index entries end in id, so each page is a range scan.
+       // The invite token comes from idx_digest_org_user, one index lookup per member.
+       // Pass afterId = 0 for the first page; pageable only carries the limit.
+       @org.springframework.data.jpa.repository.Query("SELECT new com.nrkgo.accounts.dto.OrgMemberResponse(ou.id, u.email, r.name, ou.designation, u.firstName, u.lastName, ou.status, ou.createdTime, ou.roleId, d.token) "
+                     +
+                     "FROM OrgUser ou JOIN User u ON ou.userId = u.id JOIN Role r ON ou.roleId = r.id " +
+                     "LEFT JOIN Digest d ON d.orgUserId = ou.id AND d.entityType = 'INVITE' " +
+                     "WHERE ou.orgId = :orgId AND ou.id > :afterId " +
+                     "AND (:search IS NULL OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+                     "ORDER BY ou.id")
+       List<com.nrkgo.accounts.dto.OrgMemberResponse> findMembersAfter(
+                     @org.springframework.data.repository.query.Param("orgId") Long orgId,
+                     @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                     @org.springframework.data.repository.query.Param("search") String search,
+                     org.springframework.data.domain.Pageable pageable);
+
+       // Version stamp for init ETags: memberships + orgs + subscriptions + plans in one round-trip
+       @org.springframework.data.jpa.repository.Query("SELECT new com.nrkgo.accounts.dto.InitVersionView(COUNT(ou.id), COALESCE(SUM(ou.orgId), 0), "
+                     +
+                     "COALESCE(MAX(ou.modifiedTime), 0), COALESCE(MAX(o.modifiedTime), 0), " +
+                     "(SELECT COALESCE(MAX(s.modifiedTime), 0) FROM Subscription s WHERE s.org.id IN " +
+                     "(SELECT ou2.orgId FROM OrgUser ou2 WHERE ou2.userId = :userId)), " +
+                     "(SELECT COALESCE(MAX(p.modifiedTime), 0) FROM Subscription s2 JOIN s2.plan p WHERE s2.status = 1 AND s2.org.id IN " +
+                     "(SELECT ou3.orgId FROM OrgUser ou3 WHERE ou3.userId = :userId))) " +
+                     "FROM OrgUser ou JOIN Organization o ON o.id = ou.orgId WHERE ou.userId = :userId")
+       com.nrkgo.accounts.dto.InitVersionView findInitVersionByUserId(
+                     @org.springframework.data.repository.query.Param("userId") Long userId);
 }
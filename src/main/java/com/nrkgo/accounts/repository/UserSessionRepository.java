@@ -1,7 +1,11 @@
 package com.nrkgo.accounts.repository;
 
+import com.nrkgo.accounts.dto.ActiveSessionView;
 import com.nrkgo.accounts.model.UserSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +14,28 @@ import java.util.Optional;
 public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
     Optional<UserSession> findByCookie(String cookie);
     java.util.List<UserSession> findByUserIdAndStatus(Long userId, Integer status);
+
+    // Token -> active, unexpired session -> User in one round-trip (uses uq_session_cookie)
+    @Query("SELECT new com.nrkgo.accounts.dto.ActiveSessionView(s.id, s.expireTime, u) " +
+            "FROM UserSession s JOIN User u ON u.id = s.userId " +
+            "WHERE s.cookie = :cookie AND s.status = 1 AND s.expireTime > :now")
+    Optional<ActiveSessionView> findActiveByCookie(@Param("cookie") String cookie, @Param("now") Long now);
+
+    // Used by SessionRevocationRegistry: incremental load of revoked, still-unexpired sessions
+    java.util.List<UserSession> findByStatusAndModifiedTimeGreaterThanAndExpireTimeGreaterThan(Integer status,
+            Long modifiedSince, Long expiresAfter);
+
+    // --- Used by ExpiredRecordReaper (bounded deletes by primary-key range) ---
+
+    @Query("SELECT MIN(s.id) FROM UserSession s")
+    Long findMinId();
+
+    @Query("SELECT MAX(s.id) FROM UserSession s")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM UserSession s WHERE s.id >= :fromId AND s.id < :toId " +
+            "AND (s.expireTime < :expiredBefore OR (s.status = 0 AND s.modifiedTime < :revokedBefore))")
+    int deleteExpiredInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+            @Param("expiredBefore") Long expiredBefore, @Param("revokedBefore") Long revokedBefore);
 }
@@ -0,0 +1,190 @@
+package com.nrkgo.accounts.scheduler;
+
+import com.nrkgo.accounts.common.mail.MailDispatcher;
+import com.nrkgo.accounts.common.mail.OutboundMail;
+import com.nrkgo.accounts.model.EmailOutbox;
+import com.nrkgo.accounts.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends mail queued in email_outbox.
+ *
+ * Each round:
+ * 1. Short transaction: lock up to batch-size due rows with
+ *    SELECT ... FOR UPDATE SKIP LOCKED and mark them PROCESSING with a claim
+ *    expiry. Expired claims are recovered first, then pending rows fill the
+ *    rest of the batch; each query reads one index range. Other nodes skip
+ *    these rows instead of waiting on them.
+ * 2. No transaction: send the batch over one SMTP connection via
+ *    MailDispatcher.sendBatch.
+ * 3. Short transaction: mark each row SENT, or back to PENDING with an
+ *    exponential backoff, or FAILED after max-attempts.
+ *
+ * If a node dies between 1 and 3 its claim expires and the rows are picked up
+ * again, so delivery is at-least-once.
+ *
+ * Runs on its own mailOutboxScheduler thread (SchedulingConfig), so a slow or
+ * hanging SMTP server delays only outbox mail, not the other scheduled jobs.
+ */
+@Component
+public class EmailOutboxDrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDrainer.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final MailDispatcher mailDispatcher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final long claimTtlMillis;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastRunTime;
+
+    public EmailOutboxDrainer(EmailOutboxRepository emailOutboxRepository,
+            MailDispatcher mailDispatcher,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.mail.outbox.enabled:true}") boolean enabled,
+            @Value("${app.mail.batch-size:20}") int batchSize,
+            @Value("${app.mail.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${app.mail.max-attempts:5}") int maxAttempts,
+            @Value("${app.mail.retry-base-ms:2000}") long retryBaseMillis,
+            @Value("${app.mail.retry-max-ms:300000}") long retryMaxMillis,
+            @Value("${app.mail.outbox.claim-ttl-ms:300000}") long claimTtlMillis) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailDispatcher = mailDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMillis = Math.max(0, retryBaseMillis);
+        this.retryMaxMillis = Math.max(this.retryBaseMillis, retryMaxMillis);
+        this.claimTtlMillis = Math.max(1000, claimTtlMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:1000}", initialDelayString = "${app.mail.outbox.initial-delay-ms:10000}", scheduler = "mailOutboxScheduler")
+    public void drain() {
+        if (!enabled)
+            return;
+
+        runs.incrementAndGet();
+        lastRunTime = System.currentTimeMillis();
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<EmailOutbox> batch = claimBatch();
+            if (batch.isEmpty())
+                return;
+
+            List<OutboundMail> mails = new ArrayList<>(batch.size());
+            for (EmailOutbox row : batch) {
+                mails.add(new OutboundMail(row.getRecipient(), row.getSubject(), row.getBody(),
+                        row.getIsHtml() != null && row.getIsHtml() == 1));
+            }
+
+            Map<Integer, Exception> failures = mailDispatcher.sendBatch(mails);
+            recordResults(batch, failures);
+
+            if (batch.size() < batchSize)
+                return;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", emailOutboxRepository.countByStatus(EmailOutbox.STATUS_PENDING));
+        stats.put("runs", runs.get());
+        stats.put("last_run_time", lastRunTime);
+        stats.put("claimed", claimed.get());
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private List<EmailOutbox> claimBatch() {
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> {
+            long now = System.currentTimeMillis();
+            List<EmailOutbox> rows = new ArrayList<>(emailOutboxRepository.lockExpiredClaims(now, batchSize));
+            if (rows.size() < batchSize)
+                rows.addAll(emailOutboxRepository.lockDuePending(now, batchSize - rows.size()));
+            for (EmailOutbox row : rows) {
+                row.setStatus(EmailOutbox.STATUS_PROCESSING);
+                row.setClaimedUntil(now + claimTtlMillis);
+            }
+            return emailOutboxRepository.saveAll(rows);
+        });
+        if (batch == null)
+            return Collections.emptyList();
+        claimed.addAndGet(batch.size());
+        return batch;
+    }
+
+    private void recordResults(List<EmailOutbox> batch, Map<Integer, Exception> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                EmailOutbox row = batch.get(i);
+                Exception failure = failures.get(i);
+                int attempts = (row.getAttempts() != null ? row.getAttempts() : 0) + 1;
+                row.setAttempts(attempts);
+                row.setClaimedUntil(null);
+
+                if (failure == null) {
+                    row.setStatus(EmailOutbox.STATUS_SENT);
+                    row.setSentTime(now);
+                    row.setLastError(null);
+                    sent.incrementAndGet();
+                } else if (attempts >= maxAttempts) {
+                    row.setStatus(EmailOutbox.STATUS_FAILED);
+                    row.setLastError(truncate(failure.getMessage()));
+                    failed.incrementAndGet();
+                    log.error("Giving up on outbox email {} to: {} after {} attempts",
+                            row.getId(), row.getRecipient(), attempts, failure);
+                } else {
+                    long backoff = Math.min(retryMaxMillis, retryBaseMillis << Math.min(attempts - 1, 20));
+                    row.setStatus(EmailOutbox.STATUS_PENDING);
+                    row.setNextAttemptTime(now + backoff);
+                    row.setLastError(truncate(failure.getMessage()));
+                    retried.incrementAndGet();
+                    log.warn("Outbox email {} to: {} failed (attempt {}), retrying in {} ms",
+                            row.getId(), row.getRecipient(), attempts, backoff);
+                }
+            }
+            emailOutboxRepository.saveAll(batch);
+        });
+    }
+
+    private static String truncate(String message) {
+        if (message == null)
+            return null;
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,157 @@
+package com.nrkgo.accounts.scheduler;
+
+import com.nrkgo.accounts.common.auth.SignedSessionTokenCodec;
+import com.nrkgo.accounts.repository.DigestRepository;
+import com.nrkgo.accounts.repository.EmailOutboxRepository;
+import com.nrkgo.accounts.repository.UserSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Purges expired/revoked rows from user_sessions, expired rows from digests
+ * and delivered rows from email_outbox.
+ *
+ * Deletes walk the primary key in fixed-size ranges, one short transaction
+ * per range, with a pause in between. That keeps each statement's lock
+ * footprint to at most batch-size rows so login/session writes are never
+ * blocked for long. Running on several nodes at once is harmless: the
+ * deletes are idempotent.
+ *
+ * In signed session mode a revoked row is the revocation record itself, so
+ * revoked sessions are kept until they expire.
+ */
+@Component
+public class ExpiredRecordReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredRecordReaper.class);
+
+    private final UserSessionRepository userSessionRepository;
+    private final DigestRepository digestRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SignedSessionTokenCodec tokenCodec;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final long revokedSessionRetentionMillis;
+    private final long sentMailRetentionMillis;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalSessionsPurged = new AtomicLong();
+    private final AtomicLong totalDigestsPurged = new AtomicLong();
+    private final AtomicLong totalOutboxPurged = new AtomicLong();
+    private volatile long lastRunTime;
+    private volatile long lastRunDurationMillis;
+    private volatile long lastSessionsPurged;
+    private volatile long lastDigestsPurged;
+    private volatile long lastOutboxPurged;
+
+    public ExpiredRecordReaper(UserSessionRepository userSessionRepository,
+            DigestRepository digestRepository,
+            EmailOutboxRepository emailOutboxRepository,
+            PlatformTransactionManager transactionManager,
+            SignedSessionTokenCodec tokenCodec,
+            @Value("${app.reaper.enabled:true}") boolean enabled,
+            @Value("${app.reaper.batch-size:1000}") int batchSize,
+            @Value("${app.reaper.pause-ms:50}") long pauseMillis,
+            @Value("${app.reaper.revoked-session-retention-ms:0}") long revokedSessionRetentionMillis,
+            @Value("${app.reaper.sent-mail-retention-ms:604800000}") long sentMailRetentionMillis) {
+        this.userSessionRepository = userSessionRepository;
+        this.digestRepository = digestRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tokenCodec = tokenCodec;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.revokedSessionRetentionMillis = Math.max(0, revokedSessionRetentionMillis);
+        this.sentMailRetentionMillis = Math.max(0, sentMailRetentionMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reaper.interval-ms:600000}", initialDelayString = "${app.reaper.initial-delay-ms:60000}")
+    public void reap() {
+        if (!enabled)
+            return;
+
+        long start = System.currentTimeMillis();
+        long revokedBefore = tokenCodec.isSignedMode() ? 0L : start - revokedSessionRetentionMillis;
+
+        long sessions = purgeInRanges(userSessionRepository.findMinId(), userSessionRepository.findMaxId(),
+                (fromId, toId) -> userSessionRepository.deleteExpiredInRange(fromId, toId, start, revokedBefore));
+        long digests = purgeInRanges(digestRepository.findMinId(), digestRepository.findMaxId(),
+                (fromId, toId) -> digestRepository.deleteExpiredInRange(fromId, toId, start));
+        long sentBefore = start - sentMailRetentionMillis;
+        long outbox = purgeInRanges(emailOutboxRepository.findMinId(), emailOutboxRepository.findMaxId(),
+                (fromId, toId) -> emailOutboxRepository.deleteSentInRange(fromId, toId, sentBefore));
+
+        runs.incrementAndGet();
+        totalSessionsPurged.addAndGet(sessions);
+        totalDigestsPurged.addAndGet(digests);
+        totalOutboxPurged.addAndGet(outbox);
+        lastSessionsPurged = sessions;
+        lastDigestsPurged = digests;
+        lastOutboxPurged = outbox;
+        lastRunTime = start;
+        lastRunDurationMillis = System.currentTimeMillis() - start;
+
+        log.info("Reaper run complete: {} sessions, {} digests, {} sent emails purged in {} ms",
+                sessions, digests, outbox, lastRunDurationMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.get());
+        stats.put("last_run_time", lastRunTime);
+        stats.put("last_run_duration_ms", lastRunDurationMillis);
+        stats.put("last_sessions_purged", lastSessionsPurged);
+        stats.put("last_digests_purged", lastDigestsPurged);
+        stats.put("last_outbox_purged", lastOutboxPurged);
+        stats.put("total_sessions_purged", totalSessionsPurged.get());
+        stats.put("total_digests_purged", totalDigestsPurged.get());
+        stats.put("total_outbox_purged", totalOutboxPurged.get());
+        return stats;
+    }
+
+    // --- Private helpers ---
+
+    private long purgeInRanges(Long minId, Long maxId, RangeDelete rangeDelete) {
+        if (minId == null || maxId == null)
+            return 0;
+
+        long purged = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += batchSize) {
+            final long from = fromId;
+            final long to = fromId + batchSize;
+            Integer deleted = transactionTemplate.execute(status -> rangeDelete.delete(from, to));
+            int count = (deleted != null) ? deleted : 0;
+            purged += count;
+
+            // Only back off after ranges that actually took locks
+            if (count > 0 && pauseMillis > 0 && to <= maxId) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return purged;
+    }
+
+    @FunctionalInterface
+    private interface RangeDelete {
+        int delete(Long fromId, Long toId);
+    }
+}
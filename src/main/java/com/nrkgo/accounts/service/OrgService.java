@@ -28,6 +28,10 @@ public interface OrgService {
 
     java.util.List<com.nrkgo.accounts.dto.OrgMemberResponse> getOrgMembers(Long orgId, Long userId, String search);
 
+    // Keyset page of members in membership order; a null cursor returns the first page
+    com.nrkgo.accounts.common.response.CursorPage<com.nrkgo.accounts.dto.OrgMemberResponse> getOrgMembers(Long orgId,
+            Long userId, String search, String cursor, int size);
+
     void updateMember(com.nrkgo.accounts.dto.UpdateMemberRequest request, Long requesterId);
 
     void removeMember(Long orgId, Long memberId, Long requesterId);
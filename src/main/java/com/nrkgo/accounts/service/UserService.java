@@ -23,6 +23,12 @@ public interface UserService {
 
     com.nrkgo.accounts.dto.InitResponse getInitData(Long userId, Long requestOrgId);
 
+    /**
+     * Same as getInitData(Long, Long) for a user already resolved from the
+     * session, so the user row is not fetched again.
+     */
+    com.nrkgo.accounts.dto.InitResponse getInitData(User user, Long requestOrgId);
+
     User getUserBySession(String token);
 
     User updateUser(Long userId, com.nrkgo.accounts.dto.UpdateUserRequest request);
@@ -31,6 +37,8 @@ public interface UserService {
 
     void revokeSession(Long sessionId, Long userId);
 
+    void logout(String token);
+
     com.nrkgo.accounts.model.User verifyUser(String token);
 
     void resendVerificationEmail(String email);
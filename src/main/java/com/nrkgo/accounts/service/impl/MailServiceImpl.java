@@ -1,100 +1,84 @@
 package com.nrkgo.accounts.service.impl;
 
+import com.nrkgo.accounts.common.mail.MailDispatcher;
+import com.nrkgo.accounts.common.mail.OutboundMail;
+import com.nrkgo.accounts.model.EmailOutbox;
+import com.nrkgo.accounts.repository.EmailOutboxRepository;
 import com.nrkgo.accounts.service.MailService;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-
+import java.nio.file.Files;
+
+/**
+ * Non-blocking: no method talks to SMTP on the caller's thread.
+ *
+ * Plain emails go to the email_outbox table in the caller's transaction (so
+ * they exist exactly when the digest/user they refer to does) and are sent by
+ * EmailOutboxDrainer. Attachment emails, and all mail when
+ * app.mail.outbox.enabled=false, go to the in-memory MailDispatcher after
+ * commit. Delivery failures are retried and logged there, not thrown here.
+ */
 @Service
 public class MailServiceImpl implements MailService {
 
     private static final Logger log = LoggerFactory.getLogger(MailServiceImpl.class);
 
-    private final JavaMailSender javaMailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailDispatcher mailDispatcher;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final boolean outboxEnabled;
 
-    public MailServiceImpl(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public MailServiceImpl(MailDispatcher mailDispatcher,
+            EmailOutboxRepository emailOutboxRepository,
+            @Value("${app.mail.outbox.enabled:true}") boolean outboxEnabled) {
+        this.mailDispatcher = mailDispatcher;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.outboxEnabled = outboxEnabled;
     }
 
-    @Async
     @Override
     public void sendEmail(String to, String subject, String body) {
         sendEmail(to, subject, body, true); // Default to HTML
     }
 
-    @Async
     @Override
     public void sendEmail(String to, String subject, String body, boolean isHtml) {
-        log.info("Sending email to: {}", to);
-        try {
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-
-            helper.setTo(to);
-            helper.setFrom(fromEmail);
-            helper.setSubject(subject);
-            helper.setText(body, isHtml);
-
-            javaMailSender.send(message);
-            log.info("Email sent successfully to: {}", to);
-        } catch (MessagingException e) {
-            log.error("Failed to send email to: {}", to, e);
-            // Consider throwing a custom exception if critical
+        log.info("Queueing email to: {}", to);
+        if (!outboxEnabled) {
+            mailDispatcher.submit(new OutboundMail(to, subject, body, isHtml));
+            return;
         }
+
+        // Joins the caller's transaction when there is one
+        EmailOutbox outbox = new EmailOutbox();
+        outbox.setRecipient(to);
+        outbox.setSubject(subject);
+        outbox.setBody(body);
+        outbox.setIsHtml(isHtml ? 1 : 0);
+        outbox.setStatus(EmailOutbox.STATUS_PENDING);
+        outbox.setAttempts(0);
+        outbox.setNextAttemptTime(System.currentTimeMillis());
+        emailOutboxRepository.save(outbox);
     }
 
-    @Async
     @Override
     public void sendEmailWithAttachment(String to, String subject, String body, String filePath) throws MessagingException, IOException {
-        log.info("Sending email with attachment to: {}", to);
-        
-        MimeMessage message = javaMailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
-
-        helper.setTo(to);
-        helper.setFrom(fromEmail);
-        helper.setSubject(subject);
-        helper.setText(body, true);
+        log.info("Queueing email with attachment to: {}", to);
 
-        FileSystemResource file = new FileSystemResource(new File(filePath));
-        helper.addAttachment(file.getFilename(), file);
-
-        javaMailSender.send(message);
-        log.info("Email with attachment sent successfully to: {}", to);
+        // Read now: the file may be gone by the time the dispatcher sends
+        File file = new File(filePath);
+        byte[] data = Files.readAllBytes(file.toPath());
+        mailDispatcher.submit(new OutboundMail(to, subject, body, true, file.getName(), data));
     }
 
-    @Async
     @Override
     public void sendEmailWithAttachment(String to, String subject, String body, byte[] attachmentData, String fileName) throws MessagingException {
-        log.info("Sending email with byte attachment to: {}", to);
-
-        MimeMessage message = javaMailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
-
-        helper.setTo(to);
-        helper.setFrom(fromEmail);
-        helper.setSubject(subject);
-        helper.setText(body, true);
-
-        helper.addAttachment(fileName, new ByteArrayResource(attachmentData));
-
-        javaMailSender.send(message);
-        log.info("Email with byte attachment sent successfully to: {}", to);
+        log.info("Queueing email with byte attachment to: {}", to);
+        mailDispatcher.submit(new OutboundMail(to, subject, body, true, fileName, attachmentData));
     }
 }
@@ -1,5 +1,9 @@
 package com.nrkgo.accounts.service.impl;
 
+import com.nrkgo.accounts.common.cache.InitVersionCache;
+import com.nrkgo.accounts.common.cache.OrgMembershipCache;
+import com.nrkgo.accounts.common.cache.SessionCache;
+import com.nrkgo.accounts.common.mail.EmailTemplates;
 import com.nrkgo.accounts.dto.InviteUserRequest;
 import com.nrkgo.accounts.model.Digest;
 import com.nrkgo.accounts.model.OrgUser;
@@ -32,6 +36,10 @@ public class OrgServiceImpl implements OrgService {
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
     private final com.nrkgo.accounts.service.UserService userService;
     private final com.nrkgo.accounts.service.MailService mailService;
+    private final SessionCache sessionCache;
+    private final OrgMembershipCache orgMembershipCache;
+    private final EmailTemplates emailTemplates;
+    private final InitVersionCache initVersionCache;
 
     @org.springframework.beans.factory.annotation.Value("${app.frontend.url}")
     private String frontendUrl;
@@ -44,7 +52,11 @@ public class OrgServiceImpl implements OrgService {
             RoleRepository roleRepository,
             org.springframework.security.crypto.password.PasswordEncoder passwordEncoder,
             com.nrkgo.accounts.service.UserService userService,
-            com.nrkgo.accounts.service.MailService mailService) {
+            com.nrkgo.accounts.service.MailService mailService,
+            SessionCache sessionCache,
+            OrgMembershipCache orgMembershipCache,
+            EmailTemplates emailTemplates,
+            InitVersionCache initVersionCache) {
         this.organizationRepository = organizationRepository;
         this.orgUserRepository = orgUserRepository;
         this.digestRepository = digestRepository;
@@ -53,6 +65,10 @@ public class OrgServiceImpl implements OrgService {
         this.passwordEncoder = passwordEncoder;
         this.userService = userService;
         this.mailService = mailService;
+        this.sessionCache = sessionCache;
+        this.orgMembershipCache = orgMembershipCache;
+        this.emailTemplates = emailTemplates;
+        this.initVersionCache = initVersionCache;
     }
 
     @Override
@@ -98,7 +114,9 @@ public class OrgServiceImpl implements OrgService {
         org.setModifiedBy(userId);
         org.setModifiedTime(System.currentTimeMillis());
 
-        return organizationRepository.save(org);
+        Organization saved = organizationRepository.save(org);
+        initVersionCache.evictOrg(saved.getId());
+        return saved;
     }
 
     @Override
@@ -160,12 +178,14 @@ public class OrgServiceImpl implements OrgService {
         orgUser.setModifiedTime(System.currentTimeMillis());
 
         orgUserRepository.save(orgUser);
+        orgMembershipCache.evictUser(user.getId());
 
         // 4. Create Digest (Token)
         String token = com.nrkgo.accounts.common.util.TokenUtils.generateToken();
         Digest digest = new Digest();
         digest.setEntityType("INVITE");
         digest.setEntityId(String.valueOf(orgUser.getId())); // Storing OrgUser ID reference
+        digest.setOrgUserId(orgUser.getId());
         digest.setToken(token);
         digest.setExpiryTime(System.currentTimeMillis() + 604800000L); // 7 days
         digest.setMetadata("email=" + request.getEmail());
@@ -187,8 +207,8 @@ public class OrgServiceImpl implements OrgService {
                 String inviteLink = frontendUrl + "/invitations?token=" + token; // Frontend link
                 String inviterName = inviter.getFirstName() + " "
                         + (inviter.getLastName() != null ? inviter.getLastName() : "");
-                String emailBody = com.nrkgo.accounts.config.EmailTemplateConfig.getInvitationEmailTemplate(inviteLink,
-                        org.getOrgName(), inviterName.trim());
+                String emailBody = emailTemplates.invitation(inviteLink, org.getOrgName(),
+                        inviterName.trim());
 
                 mailService.sendEmail(request.getEmail(), "Invitation to join " + org.getOrgName(), emailBody, true);
             }
@@ -241,6 +261,7 @@ public class OrgServiceImpl implements OrgService {
         // Update Status
         orgUser.setStatus(1); // Active
         orgUserRepository.save(orgUser);
+        orgMembershipCache.evictUser(orgUser.getUserId());
 
         // Consume Token (Delete or Mark used)
         digestRepository.delete(digest);
@@ -264,6 +285,7 @@ public class OrgServiceImpl implements OrgService {
         orgUser.setModifiedTime(System.currentTimeMillis());
 
         orgUserRepository.save(orgUser);
+        orgMembershipCache.evictUser(userId);
         log.info("User {} successfully claimed access to Org {}", userId, orgId);
     }
 
@@ -283,8 +305,7 @@ public class OrgServiceImpl implements OrgService {
         }
 
         // 2. Check for existing valid token
-        Optional<Digest> existingDigest = digestRepository.findByEntityIdAndEntityType(String.valueOf(orgUserId),
-                "INVITE");
+        Optional<Digest> existingDigest = digestRepository.findByOrgUserIdAndEntityType(orgUserId, "INVITE");
 
         if (existingDigest.isPresent()) {
             Digest d = existingDigest.get();
@@ -301,6 +322,7 @@ public class OrgServiceImpl implements OrgService {
         Digest digest = new Digest();
         digest.setEntityType("INVITE");
         digest.setEntityId(String.valueOf(orgUser.getId()));
+        digest.setOrgUserId(orgUser.getId());
         digest.setToken(token);
         digest.setExpiryTime(System.currentTimeMillis() + 604800000L);
 
@@ -400,11 +422,13 @@ public class OrgServiceImpl implements OrgService {
         user.setStatus(1); // Active
         user.setModifiedTime(System.currentTimeMillis());
         userRepository.save(user);
+        sessionCache.evictUser(user.getId());
 
         // 2. Activate Org Membership
         orgUser.setStatus(1); // Active
         orgUser.setModifiedTime(System.currentTimeMillis());
         orgUserRepository.save(orgUser);
+        orgMembershipCache.evictUser(orgUser.getUserId());
 
         // 3. Create Session (Auto-login)
         com.nrkgo.accounts.model.UserSession session = userService.createSession(user, httpRequest);
@@ -426,7 +450,7 @@ public class OrgServiceImpl implements OrgService {
         // I will target the end of the file or just after getOrgMembers.
 
         // 1. Check if requester is a member of the org
-        if (!orgUserRepository.existsByOrgIdAndUserId(orgId, userId)) {
+        if (!orgMembershipCache.isMember(userId, orgId)) {
             throw new IllegalArgumentException("Access denied: You are not a member of this organization");
         }
 
@@ -438,12 +462,35 @@ public class OrgServiceImpl implements OrgService {
         }
     }
 
+    @Override
+    public com.nrkgo.accounts.common.response.CursorPage<com.nrkgo.accounts.dto.OrgMemberResponse> getOrgMembers(
+            Long orgId, Long userId, String search, String cursor, int size) {
+        if (!orgMembershipCache.isMember(userId, orgId)) {
+            throw new IllegalArgumentException("Access denied: You are not a member of this organization");
+        }
+
+        com.nrkgo.accounts.common.util.KeysetCursor after = com.nrkgo.accounts.common.util.KeysetCursor.decode(cursor);
+        String term = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
+        // One extra row tells whether another page exists, without a COUNT(*)
+        java.util.List<com.nrkgo.accounts.dto.OrgMemberResponse> rows = orgUserRepository.findMembersAfter(orgId,
+                after != null ? after.getId() : 0L, term,
+                org.springframework.data.domain.PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new com.nrkgo.accounts.common.response.CursorPage<>(rows, null);
+        }
+        java.util.List<com.nrkgo.accounts.dto.OrgMemberResponse> items = rows.subList(0, size);
+        String next = new com.nrkgo.accounts.common.util.KeysetCursor(null, items.get(size - 1).getId()).encode();
+        return new com.nrkgo.accounts.common.response.CursorPage<>(items, next);
+    }
+
     @Override
     @Transactional
     public void updateMember(com.nrkgo.accounts.dto.UpdateMemberRequest request, Long requesterId) {
         // 1. Verify Requester
-        OrgUser requester = orgUserRepository.findByOrgIdAndUserId(request.getOrgId(), requesterId)
-                .orElseThrow(() -> new IllegalArgumentException("Access denied"));
+        if (!orgMembershipCache.isMember(requesterId, request.getOrgId())) {
+            throw new IllegalArgumentException("Access denied");
+        }
 
         // 2. Find Target Member (OrgUser)
         OrgUser targetOrgUser = orgUserRepository.findById(request.getMemberId())
@@ -473,6 +520,7 @@ public class OrgServiceImpl implements OrgService {
         targetOrgUser.setModifiedBy(requesterId);
         targetOrgUser.setModifiedTime(System.currentTimeMillis());
         orgUserRepository.save(targetOrgUser);
+        orgMembershipCache.evictUser(targetOrgUser.getUserId());
 
         // 4. Update User Data (Name)
         User targetUser = userRepository.findById(targetOrgUser.getUserId())
@@ -484,13 +532,14 @@ public class OrgServiceImpl implements OrgService {
             targetUser.setLastName(request.getLastName());
 
         userRepository.save(targetUser);
+        sessionCache.evictUser(targetUser.getId());
     }
 
     @Override
     @Transactional
     public void removeMember(Long orgId, Long memberId, Long requesterId) {
         // 1. Verify Requester
-        if (!orgUserRepository.existsByOrgIdAndUserId(orgId, requesterId)) {
+        if (!orgMembershipCache.isMember(requesterId, orgId)) {
             throw new IllegalArgumentException("Access denied");
         }
 
@@ -514,6 +563,7 @@ public class OrgServiceImpl implements OrgService {
 
         // 4. Delete
         orgUserRepository.delete(targetOrgUser);
+        orgMembershipCache.evictUser(targetOrgUser.getUserId());
     }
 
     // --- Role Management ---
@@ -527,7 +577,7 @@ public class OrgServiceImpl implements OrgService {
     @Transactional
     public Role createOrgRole(com.nrkgo.accounts.dto.RoleRequest request, Long orgId, Long requesterId) {
         // 1. Verify Permission (Requester must be Admin/Super Admin)
-        if (!orgUserRepository.existsByOrgIdAndUserId(orgId, requesterId)) {
+        if (!orgMembershipCache.isMember(requesterId, orgId)) {
             throw new IllegalArgumentException("Access denied");
         }
 
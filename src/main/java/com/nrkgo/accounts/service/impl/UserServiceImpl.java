@@ -1,5 +1,10 @@
 package com.nrkgo.accounts.service.impl;
 
+import com.nrkgo.accounts.common.auth.SessionRevocationRegistry;
+import com.nrkgo.accounts.common.auth.SignedSessionTokenCodec;
+import com.nrkgo.accounts.common.cache.OrgMembershipCache;
+import com.nrkgo.accounts.common.cache.SessionCache;
+import com.nrkgo.accounts.common.mail.EmailTemplates;
 import com.nrkgo.accounts.dto.LoginRequest;
 import com.nrkgo.accounts.dto.SignupRequest;
 import com.nrkgo.accounts.model.User;
@@ -29,6 +34,11 @@ public class UserServiceImpl implements UserService {
     private final com.nrkgo.accounts.repository.RoleRepository roleRepository;
     private final com.nrkgo.accounts.service.MailService mailService;
     private final com.nrkgo.accounts.repository.DigestRepository digestRepository;
+    private final SessionCache sessionCache;
+    private final SignedSessionTokenCodec tokenCodec;
+    private final SessionRevocationRegistry revocationRegistry;
+    private final OrgMembershipCache orgMembershipCache;
+    private final EmailTemplates emailTemplates;
 
     @org.springframework.beans.factory.annotation.Value("${app.frontend.url}")
     private String frontendUrl;
@@ -44,7 +54,12 @@ public class UserServiceImpl implements UserService {
             com.nrkgo.accounts.repository.OrgUserRepository orgUserRepository,
             com.nrkgo.accounts.repository.RoleRepository roleRepository,
             com.nrkgo.accounts.service.MailService mailService,
-            com.nrkgo.accounts.repository.DigestRepository digestRepository) {
+            com.nrkgo.accounts.repository.DigestRepository digestRepository,
+            SessionCache sessionCache,
+            SignedSessionTokenCodec tokenCodec,
+            SessionRevocationRegistry revocationRegistry,
+            OrgMembershipCache orgMembershipCache,
+            EmailTemplates emailTemplates) {
         this.userRepository = userRepository;
         this.userSessionRepository = userSessionRepository;
         this.passwordEncoder = passwordEncoder;
@@ -53,6 +68,11 @@ public class UserServiceImpl implements UserService {
         this.roleRepository = roleRepository;
         this.mailService = mailService;
         this.digestRepository = digestRepository;
+        this.sessionCache = sessionCache;
+        this.tokenCodec = tokenCodec;
+        this.revocationRegistry = revocationRegistry;
+        this.orgMembershipCache = orgMembershipCache;
+        this.emailTemplates = emailTemplates;
     }
 
     @Override
@@ -156,6 +176,7 @@ public class UserServiceImpl implements UserService {
         orgUser.setModifiedTime(System.currentTimeMillis());
 
         orgUserRepository.save(orgUser);
+        orgMembershipCache.evictUser(savedUser.getId());
 
         // --- Email Verification Setup ---
         sendVerificationEmail(savedUser);
@@ -204,7 +225,15 @@ public class UserServiceImpl implements UserService {
             session.setDeviceName(com.nrkgo.accounts.common.util.DeviceUtil.getDeviceName(userAgent));
         }
 
-        return userSessionRepository.save(session);
+        UserSession saved = userSessionRepository.save(session);
+
+        if (tokenCodec.isSignedMode()) {
+            // The signed token embeds the session ID, so it can only be issued after insert
+            saved.setCookie(tokenCodec.issue(user.getId(), saved.getId(), saved.getExpireTime()));
+            saved = userSessionRepository.save(saved);
+        }
+
+        return saved;
     }
 
     @Override
@@ -221,14 +250,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean validateSession(String token) {
-        return userSessionRepository.findByCookie(token)
-                .map(session -> {
-                    // Check if session is active (status=1) and not expired
-                    if (session.getStatus() != 1)
-                        return false;
-                    return session.getExpireTime() > System.currentTimeMillis();
-                })
-                .orElse(false);
+        SignedSessionTokenCodec.Claims claims = tokenCodec.verify(token);
+        if (claims != null) {
+            // Signed mode: signature + expiry + revocation set, no I/O
+            return !claims.isExpired(System.currentTimeMillis())
+                    && !revocationRegistry.isRevoked(claims.getSessionId());
+        }
+        return getUserBySession(token) != null;
     }
 
     @Override
@@ -237,17 +265,24 @@ public class UserServiceImpl implements UserService {
         // 1. Fetch User Info
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return getInitData(user, requestOrgId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public com.nrkgo.accounts.dto.InitResponse getInitData(User user, Long requestOrgId) {
+        Long userId = user.getId();
 
-        // 2. Fetch all OrgUser records
-        java.util.List<com.nrkgo.accounts.model.OrgUser> orgUsers = orgUserRepository.findByUserId(userId);
+        // 2. Fetch all memberships (cached)
+        java.util.List<OrgMembershipCache.Membership> memberships = orgMembershipCache.getMemberships(userId);
 
-        if (orgUsers.isEmpty()) {
+        if (memberships.isEmpty()) {
             throw new IllegalArgumentException("User does not belong to any organization");
         }
 
         // 3. Collect Org IDs and Map to Orgs
-        java.util.List<Long> orgIds = orgUsers.stream()
-                .map(com.nrkgo.accounts.model.OrgUser::getOrgId)
+        java.util.List<Long> orgIds = memberships.stream()
+                .map(OrgMembershipCache.Membership::getOrgId)
                 .collect(java.util.stream.Collectors.toList());
 
         // Fetch all Organizations in one query
@@ -264,22 +299,12 @@ public class UserServiceImpl implements UserService {
             // Priority 1: Requested explicitly
             targetOrgId = requestOrgId;
             // Verify user belongs to this org
-            boolean belongs = orgUsers.stream().anyMatch(ou -> ou.getOrgId().equals(requestOrgId));
-            if (!belongs) {
+            if (!orgMembershipCache.isMember(userId, requestOrgId)) {
                 throw new SecurityException("User does not have access to requested organization");
             }
         } else {
-            // Priority 2: 'is_default' flag in DB
-            targetOrgId = orgUsers.stream()
-                    .filter(ou -> ou.getIsDefault() != null && ou.getIsDefault() == 1)
-                    .map(com.nrkgo.accounts.model.OrgUser::getOrgId)
-                    .findFirst()
-                    .orElse(null);
-
-            // Priority 3: Fallback to first found
-            if (targetOrgId == null && !orgIds.isEmpty()) {
-                targetOrgId = orgIds.get(0);
-            }
+            // Priority 2: 'is_default' flag, Priority 3: first found
+            targetOrgId = orgMembershipCache.resolveOrgId(userId, null);
         }
 
         final Long finalDefaultId = targetOrgId;
@@ -304,12 +329,48 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public User getUserBySession(String token) {
-        return userSessionRepository.findByCookie(token)
-                .filter(session -> session.getStatus() == 1 && session.getExpireTime() > System.currentTimeMillis())
-                .map(session -> userRepository.findById(session.getUserId()).orElse(null))
+        // Not @Transactional: a cache hit must not borrow a JDBC connection
+        SignedSessionTokenCodec.Claims claims = tokenCodec.verify(token);
+        if (claims != null) {
+            return getUserBySignedSession(token, claims);
+        }
+
+        User cached = sessionCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Single JOIN query: active + unexpired session and its user
+        com.nrkgo.accounts.dto.ActiveSessionView view = userSessionRepository
+                .findActiveByCookie(token, System.currentTimeMillis())
                 .orElse(null);
+        if (view == null || view.getUser() == null) {
+            return null;
+        }
+
+        sessionCache.put(token, view.getSessionId(), view.getExpireTime(), view.getUser());
+        return view.getUser();
+    }
+
+    private User getUserBySignedSession(String token, SignedSessionTokenCodec.Claims claims) {
+        if (claims.isExpired(System.currentTimeMillis()) || revocationRegistry.isRevoked(claims.getSessionId())) {
+            return null;
+        }
+
+        User cached = sessionCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Session row is not consulted: the signature already proves it was issued
+        User user = userRepository.findById(claims.getUserId()).orElse(null);
+        if (user == null) {
+            return null;
+        }
+
+        sessionCache.put(token, claims.getSessionId(), claims.getExpireTime(), user);
+        return user;
     }
 
     @Override
@@ -344,7 +405,9 @@ public class UserServiceImpl implements UserService {
         if (updated) {
             user.setModifiedBy(userId);
             user.setModifiedTime(System.currentTimeMillis());
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            sessionCache.evictUser(userId);
+            return saved;
         }
 
         return user;
@@ -372,6 +435,23 @@ public class UserServiceImpl implements UserService {
         session.setModifiedBy(userId);
         session.setModifiedTime(System.currentTimeMillis());
         userSessionRepository.save(session);
+        revocationRegistry.markRevoked(sessionId, session.getExpireTime());
+        sessionCache.evictSession(sessionId);
+    }
+
+    @Override
+    @Transactional
+    public void logout(String token) {
+        userSessionRepository.findByCookie(token)
+                .filter(session -> session.getStatus() == 1)
+                .ifPresent(session -> {
+                    session.setStatus(0);
+                    session.setModifiedBy(session.getUserId());
+                    session.setModifiedTime(System.currentTimeMillis());
+                    userSessionRepository.save(session);
+                    revocationRegistry.markRevoked(session.getId(), session.getExpireTime());
+                });
+        sessionCache.evictToken(token);
     }
 
     @Override
@@ -396,6 +476,7 @@ public class UserServiceImpl implements UserService {
         user.setModifiedBy(userId);
         user.setModifiedTime(System.currentTimeMillis());
         userRepository.save(user);
+        sessionCache.evictUser(userId);
 
         // Invalidate token
         digestRepository.delete(digest);
@@ -436,8 +517,7 @@ public class UserServiceImpl implements UserService {
         try {
             String resetLink = frontendUrl + "/reset-password?token=" + token;
             String userName = user.getFirstName() != null ? user.getFirstName() : "User";
-            String emailBody = com.nrkgo.accounts.config.EmailTemplateConfig.getPasswordResetEmailTemplate(resetLink,
-                    userName);
+            String emailBody = emailTemplates.passwordReset(resetLink, userName);
 
             mailService.sendEmail(user.getEmail(), "Reset your password", emailBody, true);
         } catch (Exception e) {
@@ -468,6 +548,7 @@ public class UserServiceImpl implements UserService {
         user.setModifiedBy(userId);
         user.setModifiedTime(System.currentTimeMillis());
         userRepository.save(user);
+        sessionCache.evictUser(userId);
 
         // Invalidate Token
         digestRepository.delete(digest);
@@ -487,6 +568,7 @@ public class UserServiceImpl implements UserService {
         user.setModifiedBy(userId); // Or current admin ID if available
         user.setModifiedTime(System.currentTimeMillis());
         userRepository.save(user);
+        sessionCache.evictUser(userId);
 
         log.info("User activated by admin/tool: {}", userId);
     }
@@ -511,8 +593,7 @@ public class UserServiceImpl implements UserService {
             digestRepository.save(digest);
 
             String verificationLink = backendUrl + "/api/auth/verify?token=" + token;
-            String emailBody = com.nrkgo.accounts.config.EmailTemplateConfig
-                    .getVerificationEmailTemplate(verificationLink);
+            String emailBody = emailTemplates.verification(verificationLink);
 
             mailService.sendEmail(user.getEmail(), "Verify your email address", emailBody, true);
         } catch (Exception e) {
@@ -1,7 +1,6 @@
 -- Accounts Service Schema
--- Safe to run multiple times: all CREATE TABLE use IF NOT EXISTS, all INSERTs use INSERT IGNORE
- create database  IF NOT EXISTS accounts;
- use accounts;
+-- Flyway migration (db/migration): applied once, checksummed. Never edit after release; add a new V<n>__ file.
+-- Safe on databases that predate Flyway: all CREATE TABLE use IF NOT EXISTS, all INSERTs use INSERT IGNORE
 -- 1. Users Table
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -112,5 +111,26 @@ CREATE TABLE IF NOT EXISTS user_sessions (
     created_time BIGINT,
     modified_by BIGINT,
     modified_time BIGINT,
-    FOREIGN KEY (user_id) REFERENCES users(id)
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    UNIQUE KEY uq_session_cookie (cookie)   -- Every authenticated request looks up by cookie
+);
+
+-- 7. Email Outbox (written in the same transaction as the digest it refers to; drained by EmailOutboxDrainer)
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body LONGTEXT NOT NULL,
+    is_html INT NOT NULL,
+    status INT NOT NULL,                -- 0: Pending, 1: Processing, 2: Sent, 3: Failed
+    attempts INT NOT NULL,
+    next_attempt_time BIGINT NOT NULL,
+    claimed_until BIGINT,
+    sent_time BIGINT,
+    last_error VARCHAR(1000),
+    created_by BIGINT,
+    created_time BIGINT,
+    modified_by BIGINT,
+    modified_time BIGINT,
+    INDEX idx_outbox_status_next (status, next_attempt_time)
 );
@@ -1,4 +1,5 @@
 -- Plans & Subscriptions Module Schema
+-- Flyway migration (db/migration): never edit after release; add a new V<n>__ file.
 -- Plans belong to ORGANIZATIONS, not individual users.
 
 -- 1. Products Registry (Lightweight — uniqueness enforcement + slug/metadata store)
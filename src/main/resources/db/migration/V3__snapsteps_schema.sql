@@ -1,4 +1,5 @@
 -- SnapSteps Module Schema
+-- Flyway migration (db/migration): never edit after release; add a new V<n>__ file.
 
 -- 1. Guides Table
 CREATE TABLE IF NOT EXISTS ss_guides (
@@ -11,15 +12,19 @@ CREATE TABLE IF NOT EXISTS ss_guides (
     total_steps INT DEFAULT 0,
     first_url TEXT,
     storage_type VARCHAR(20) DEFAULT 'cloud',  -- 'cloud' or 'local'
+    version BIGINT NOT NULL DEFAULT 0,         -- Optimistic lock / delta sync base_version
+    search_text MEDIUMTEXT,                    -- Title + step descriptions + URLs (search only)
     created_by BIGINT,
     created_time BIGINT,
     modified_by BIGINT,
     modified_time BIGINT,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (org_id) REFERENCES organizations(id) ON DELETE CASCADE,
-    INDEX (user_id),
-    INDEX (org_id),
-    INDEX (external_id)
+    -- Matched to SnapGuideRepository's queries (checked by SnapGuideIndexUsageTest).
+    -- external_id needs no extra index: the UNIQUE above serves findByExternalId and bulk IN lookups.
+    INDEX idx_guides_user_org_modified (user_id, org_id, modified_time, id),  -- list/count/stream/keyset; also the user_id FK index
+    INDEX idx_guides_org (org_id),                                            -- org_id FK
+    FULLTEXT KEY ft_guide_search (search_text)
 );
 
 -- 2. Usage Tracking Table (Isolated to SnapSteps)
@@ -0,0 +1,79 @@
+-- Brings databases created before Flyway (by the old db/*.sql scripts or ddl-auto=update) up to the
+-- V1-V3 schema. On a fresh database every step is a no-op. MySQL has no ADD COLUMN/INDEX IF NOT EXISTS,
+-- so each step checks information_schema and runs its DDL through a prepared statement.
+-- Index changes use ALGORITHM=INPLACE, LOCK=NONE so reads and writes continue while they build.
+
+-- user_sessions: cookie lookups on every authenticated request
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_sessions' AND INDEX_NAME = 'uq_session_cookie') = 0,
+              'ALTER TABLE user_sessions ADD UNIQUE KEY uq_session_cookie (cookie), ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- email_outbox: drainer claims by (status, next_attempt_time)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'email_outbox' AND INDEX_NAME = 'idx_outbox_status_next') = 0,
+              'ALTER TABLE email_outbox ADD INDEX idx_outbox_status_next (status, next_attempt_time), ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- subscriptions: active subscription per (org, product)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'subscriptions' AND INDEX_NAME = 'idx_active_sub') = 0,
+              'ALTER TABLE subscriptions ADD INDEX idx_active_sub (org_id, product_code, status), ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- ss_guides.version: optimistic lock / delta sync base_version
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND COLUMN_NAME = 'version') = 0,
+              'ALTER TABLE ss_guides ADD COLUMN version BIGINT NOT NULL DEFAULT 0, ALGORITHM=INSTANT',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- ss_guides.search_text: filled for old rows by GuideSearchBackfill
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND COLUMN_NAME = 'search_text') = 0,
+              'ALTER TABLE ss_guides ADD COLUMN search_text MEDIUMTEXT, ALGORITHM=INSTANT',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- ss_guides listing index (must exist before the user_id index below is dropped: it backs the user_id FK)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'idx_guides_user_org_modified') = 0,
+              'ALTER TABLE ss_guides ADD INDEX idx_guides_user_org_modified (user_id, org_id, modified_time, id), ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'idx_guides_org') = 0,
+              'ALTER TABLE ss_guides ADD INDEX idx_guides_org (org_id), ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- Single-column indexes the old snapsteps.sql created (auto-named user_id, org_id, external_id_2), now redundant
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'user_id') > 0,
+              'ALTER TABLE ss_guides DROP INDEX user_id, ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'org_id') > 0,
+              'ALTER TABLE ss_guides DROP INDEX org_id, ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'external_id_2'
+                 AND NON_UNIQUE = 1) > 0,
+              'ALTER TABLE ss_guides DROP INDEX external_id_2, ALGORITHM=INPLACE, LOCK=NONE',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- FULLTEXT last: the first FULLTEXT index on a table rebuilds it and cannot run with LOCK=NONE
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ss_guides' AND INDEX_NAME = 'ft_guide_search') = 0,
+              'ALTER TABLE ss_guides ADD FULLTEXT KEY ft_guide_search (search_text)',
+              'DO 0');
+PREPARE stmt FROM @ddl; EXECUTE stmt; DEALLOCATE PREPARE stmt;
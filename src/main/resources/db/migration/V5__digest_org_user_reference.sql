@@ -0,0 +1,17 @@
+-- Typed org_users reference for INVITE digests. Member listings used to join on
+-- entity_id = CAST(org_users.id AS CHAR), which no index can serve; they now join on org_user_id.
+-- No FOREIGN KEY: removing a member leaves its invite digest for ExpiredRecordReaper to clean up.
+
+ALTER TABLE digests ADD COLUMN org_user_id BIGINT, ALGORITHM=INSTANT;
+
+-- entity_id has always held the org_users id for invites; the REGEXP guard keeps strict mode from
+-- rejecting the CAST on anything unexpected
+UPDATE digests
+SET org_user_id = CAST(entity_id AS UNSIGNED)
+WHERE entity_type = 'INVITE' AND org_user_id IS NULL AND entity_id REGEXP '^[0-9]+$';
+
+-- Member listings: one lookup per member for its pending invite token
+ALTER TABLE digests ADD INDEX idx_digest_org_user (org_user_id, entity_type), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Lookups by (entity_type, entity_id), e.g. DigestRepository.findByEntityIdAndEntityType
+ALTER TABLE digests ADD INDEX idx_digest_entity (entity_type, entity_id), ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,25 @@
+-- Which guides reference which screenshot blob. Blobs are content-addressed and shared, so
+-- GET /snapsteps/api/screenshots/{hash} is only allowed when one of the caller's own guides in
+-- the current org references the hash (GuideScreenshotRefs.isVisible).
+
+CREATE TABLE IF NOT EXISTS ss_guide_screenshots (
+    guide_id BIGINT NOT NULL,
+    hash CHAR(64) NOT NULL,                    -- sha256 hex, as in ScreenshotRefs
+    PRIMARY KEY (guide_id, hash),              -- replace-by-guide on save; owner join on read
+    INDEX idx_screenshot_hash (hash),          -- authorization lookup
+    FOREIGN KEY (guide_id) REFERENCES ss_guides(id) ON DELETE CASCADE
+);
+
+-- Backfill from the references already in steps_json ("/snapsteps/api/screenshots/{hash}.{ext}",
+-- 27 characters of prefix). The LIKE keeps JSON_TABLE to guides that have references at all.
+-- A malformed steps_json must not fail the migration (and with it every node's startup): such
+-- rows are filtered out, and the IF hands JSON_TABLE an empty array in case the optimizer
+-- evaluates it before the filter.
+INSERT IGNORE INTO ss_guide_screenshots (guide_id, hash)
+SELECT g.id, SUBSTRING(JSON_UNQUOTE(jt.screenshot), 28, 64)
+FROM ss_guides g,
+     JSON_TABLE(IF(JSON_VALID(g.steps_json), g.steps_json, '[]'), '$[*]'
+                COLUMNS (screenshot JSON PATH '$.screenshot')) jt
+WHERE g.steps_json LIKE '%/snapsteps/api/screenshots/%'
+  AND JSON_VALID(g.steps_json)
+  AND JSON_UNQUOTE(jt.screenshot) REGEXP '^/snapsteps/api/screenshots/[0-9a-f]{64}[.]';
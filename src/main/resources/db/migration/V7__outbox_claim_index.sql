@@ -0,0 +1,4 @@
+-- EmailOutboxDrainer recovers expired claims (status = PROCESSING AND claimed_until < now) with its
+-- own index range read instead of OR-ing them into the pending claim, which scanned and locked the
+-- whole outbox under FOR UPDATE.
+ALTER TABLE email_outbox ADD INDEX idx_outbox_status_claimed (status, claimed_until), ALGORITHM=INPLACE, LOCK=NONE;
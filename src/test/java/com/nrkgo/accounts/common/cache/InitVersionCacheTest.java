@@ -0,0 +1,82 @@
+package com.nrkgo.accounts.common.cache;
+
+import com.nrkgo.accounts.dto.InitVersionView;
+import com.nrkgo.accounts.repository.OrgUserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * evictOrg goes through the orgId -> userIds index, so it must drop exactly
+ * the org's members, and entries that leave the cache must leave the index.
+ */
+class InitVersionCacheTest {
+
+	private final OrgUserRepository orgUserRepository = mock(OrgUserRepository.class);
+	private final OrgMembershipCache orgMembershipCache = mock(OrgMembershipCache.class);
+	private final Map<Long, List<OrgMembershipCache.Membership>> memberships = new HashMap<>();
+
+	@Test
+	void evictOrgDropsOnlyThatOrgsMembers() {
+		InitVersionCache cache = cache(100);
+		member(1L, 10L, 20L);
+		member(2L, 10L);
+		member(3L, 30L);
+		cache.getVersion(1L);
+		cache.getVersion(2L);
+		cache.getVersion(3L);
+
+		cache.evictOrg(20L);
+		assertThat(cache.getStats().get("size")).isEqualTo(2);
+
+		cache.evictOrg(10L);
+		assertThat(cache.getStats().get("size")).isEqualTo(1);
+		cache.getVersion(3L);
+		assertThat(cache.getStats().get("hits")).isEqualTo(1L);
+	}
+
+	@Test
+	void lruEvictionLeavesNoStaleIndexEntries() {
+		InitVersionCache cache = cache(1);
+		member(1L, 10L);
+		member(2L, 20L);
+		cache.getVersion(1L);
+		cache.getVersion(2L); // evicts user 1
+
+		member(1L, 30L); // user 1 left org 10 meanwhile
+		cache.getVersion(1L); // evicts user 2
+		cache.evictOrg(10L);
+
+		assertThat(cache.getStats().get("size")).isEqualTo(1);
+		cache.getVersion(1L);
+		assertThat(cache.getStats().get("hits")).isEqualTo(1L);
+	}
+
+	// --- Helpers ---
+
+	private InitVersionCache cache(int maxSize) {
+		when(orgUserRepository.findInitVersionByUserId(anyLong()))
+				.thenReturn(new InitVersionView(1L, 1L, 1L, 1L, 1L, 1L));
+		when(orgMembershipCache.getMemberships(anyLong()))
+				.thenAnswer(invocation -> memberships.get(invocation.<Long>getArgument(0)));
+		return new InitVersionCache(orgUserRepository, orgMembershipCache, maxSize, 60);
+	}
+
+	private void member(Long userId, Long... orgIds) {
+		List<OrgMembershipCache.Membership> list = new ArrayList<>();
+		for (Long orgId : orgIds) {
+			OrgMembershipCache.Membership membership = mock(OrgMembershipCache.Membership.class);
+			when(membership.getOrgId()).thenReturn(orgId);
+			list.add(membership);
+		}
+		memberships.put(userId, List.copyOf(list));
+	}
+}
@@ -0,0 +1,65 @@
+package com.nrkgo.accounts.common.mail;
+
+import com.nrkgo.accounts.support.MicroBenchmark;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invitation rendering: compiled template vs. the old string concatenation
+ * and vs. String.replace over the same template file.
+ *
+ * Opt-in: mvn test -Dbenchmarks=true -Dtest=EmailTemplatesBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = MicroBenchmark.ENABLED_PROPERTY, matches = "true")
+class EmailTemplatesBenchmarkTest {
+
+	private static final int WARMUP = 50_000;
+	private static final int ITERATIONS = 200_000;
+
+	private static final String LINK = "https://accounts.example.com/invitations?token=3f9a1c7e5b2d4a6f8e0c";
+	private static final String ORG = "Acme & Sons";
+	private static final String INVITER = "Jane O'Doe";
+
+	@Test
+	void compiledInvitationAllocatesLessThanStringReplace() throws IOException {
+		EmailTemplates templates = new EmailTemplates(new DefaultResourceLoader(), "classpath:templates/email/");
+		String source = load("templates/email/invitation.html");
+
+		MicroBenchmark.Result legacy = MicroBenchmark.measure("legacy concatenation (unescaped)", WARMUP, ITERATIONS,
+				() -> LegacyEmailTemplates.getInvitationEmailTemplate(LINK, ORG, INVITER));
+		MicroBenchmark.Result replace = MicroBenchmark.measure("String.replace (escaped)", WARMUP, ITERATIONS,
+				() -> renderWithReplace(source));
+		MicroBenchmark.Result compiled = MicroBenchmark.measure("CompiledTemplate (escaped)", WARMUP, ITERATIONS,
+				() -> templates.invitation(LINK, ORG, INVITER));
+
+		assertThat(compiled.getBytesPerOp()).isLessThan(replace.getBytesPerOp());
+		assertThat(compiled.getNanosPerOp()).isLessThan(replace.getNanosPerOp());
+		// Concatenation does no escaping, so it only bounds what escaping costs
+		assertThat(legacy.getNanosPerOp()).isPositive();
+	}
+
+	private static String renderWithReplace(String source) {
+		return source.replace("{{invite_link}}", escape(LINK))
+				.replace("{{org_name}}", escape(ORG))
+				.replace("{{inviter_name}}", escape(INVITER));
+	}
+
+	private static String escape(String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+				.replace("\"", "&quot;").replace("'", "&#39;");
+	}
+
+	private static String load(String path) throws IOException {
+		try (InputStream in = new DefaultResourceLoader().getResource("classpath:" + path).getInputStream()) {
+			return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.nrkgo.accounts.common.mail;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compiled templates against the old string-concatenation output
+ * (LegacyEmailTemplates). The resource files put each old fragment on its
+ * own line, so line breaks between tags are the only allowed difference.
+ */
+class EmailTemplatesTest {
+
+	private static final String LINK = "https://accounts.example.com/invitations?token=abc123";
+
+	private final EmailTemplates templates = new EmailTemplates(new DefaultResourceLoader(),
+			"classpath:templates/email/");
+
+	@Test
+	void verificationMatchesLegacyOutput() {
+		assertThat(withoutLineBreaks(templates.verification(LINK)))
+				.isEqualTo(LegacyEmailTemplates.getVerificationEmailTemplate(LINK));
+	}
+
+	@Test
+	void invitationMatchesLegacyOutput() {
+		assertThat(withoutLineBreaks(templates.invitation(LINK, "Acme", "Jane Doe")))
+				.isEqualTo(LegacyEmailTemplates.getInvitationEmailTemplate(LINK, "Acme", "Jane Doe"));
+	}
+
+	@Test
+	void passwordResetMatchesLegacyOutput() {
+		assertThat(withoutLineBreaks(templates.passwordReset(LINK, "Jane")))
+				.isEqualTo(LegacyEmailTemplates.getPasswordResetEmailTemplate(LINK, "Jane"));
+	}
+
+	@Test
+	void placeholderValuesAreHtmlEscaped() {
+		String orgName = "<script>alert('x')</script>";
+		String inviterName = "Tom & \"Jerry\"";
+
+		String html = templates.invitation(LINK, orgName, inviterName);
+
+		assertThat(html).doesNotContain("<script>").doesNotContain("Tom & ");
+		assertThat(withoutLineBreaks(html)).isEqualTo(LegacyEmailTemplates.getInvitationEmailTemplate(LINK,
+				"&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;", "Tom &amp; &quot;Jerry&quot;"));
+	}
+
+	@Test
+	void quoteInLinkCannotBreakOutOfHrefAttribute() {
+		String html = templates.passwordReset("https://x.example.com/r?t=1' onclick='evil()", "Jane");
+
+		assertThat(html).contains("href='https://x.example.com/r?t=1&#39; onclick=&#39;evil()'");
+	}
+
+	@Test
+	void nullValuesRenderAsEmpty() {
+		assertThat(withoutLineBreaks(templates.passwordReset(LINK, null)))
+				.isEqualTo(LegacyEmailTemplates.getPasswordResetEmailTemplate(LINK, ""));
+	}
+
+	@Test
+	void unknownPlaceholderIsRejectedAtCompileTime() {
+		assertThatThrownBy(() -> CompiledTemplate.compile("t.html", "Hi {{user_name}}, {{bogus}}", "user_name"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("{{bogus}}");
+		assertThatThrownBy(() -> CompiledTemplate.compile("t.html", "Hi {{user_name", "user_name"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Unterminated");
+	}
+
+	private static String withoutLineBreaks(String html) {
+		return html.replace("\r", "").replace("\n", "");
+	}
+}
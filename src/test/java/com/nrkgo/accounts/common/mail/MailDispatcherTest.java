@@ -0,0 +1,220 @@
+package com.nrkgo.accounts.common.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MailDispatcher against a fake SMTP sender: batching, exponential backoff,
+ * final failure and after-commit submit.
+ */
+class MailDispatcherTest {
+
+	private static final long RETRY_BASE_MS = 100L;
+
+	private final FakeMailSender sender = new FakeMailSender();
+	private MailDispatcher dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		if (dispatcher != null)
+			dispatcher.stop();
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void queuedMailIsSentInBatches() {
+		dispatcher = dispatcher(3, 3);
+		// Queue before the worker starts so it finds all five ready at once
+		for (int i = 0; i < 5; i++)
+			dispatcher.submit(mail("user" + i + "@example.com"));
+		dispatcher.start();
+
+		awaitTrue(() -> sender.recipients().size() == 5);
+		assertThat(sender.batchSizes()).containsExactly(3, 2);
+		assertThat(sender.recipients()).containsExactly("user0@example.com", "user1@example.com",
+				"user2@example.com", "user3@example.com", "user4@example.com");
+		assertThat(dispatcher.getStats()).containsEntry("sent", 5L).containsEntry("batches", 2L);
+		assertThat(dispatcher.getQueueDepth()).isZero();
+	}
+
+	@Test
+	void failedMailIsRetriedWithExponentialBackoff() {
+		sender.failNextCalls(2);
+		dispatcher = dispatcher(1, 5);
+		dispatcher.start();
+		dispatcher.submit(mail("retry@example.com"));
+
+		awaitTrue(() -> stat("sent") == 1L);
+		List<Long> calls = sender.callTimes();
+		assertThat(calls).hasSize(3);
+		// attempt 1 -> 2 waits base, attempt 2 -> 3 waits 2 * base
+		assertThat(calls.get(1) - calls.get(0)).isGreaterThanOrEqualTo(RETRY_BASE_MS);
+		assertThat(calls.get(2) - calls.get(1)).isGreaterThanOrEqualTo(2 * RETRY_BASE_MS);
+		assertThat(dispatcher.getStats()).containsEntry("retried", 2L).containsEntry("failed", 0L);
+	}
+
+	@Test
+	void mailIsDroppedAfterMaxAttempts() {
+		sender.failNextCalls(Integer.MAX_VALUE);
+		dispatcher = dispatcher(1, 3);
+		dispatcher.start();
+		dispatcher.submit(mail("down@example.com"));
+
+		awaitTrue(() -> stat("failed") == 1L);
+		sleep(4 * RETRY_BASE_MS); // long enough for a fourth attempt, were one scheduled
+		assertThat(sender.callTimes()).hasSize(3);
+		assertThat(dispatcher.getStats()).containsEntry("retried", 2L).containsEntry("sent", 0L);
+		assertThat(dispatcher.getQueueDepth()).isZero();
+	}
+
+	@Test
+	void onlyRejectedMessagesOfABatchAreRetried() {
+		sender.rejectRecipientOnce("bad@example.com");
+		dispatcher = dispatcher(2, 3);
+		dispatcher.submit(mail("good@example.com"));
+		dispatcher.submit(mail("bad@example.com"));
+		dispatcher.start();
+
+		awaitTrue(() -> stat("sent") == 2L);
+		assertThat(sender.recipients()).containsExactly("good@example.com", "bad@example.com", "bad@example.com");
+		assertThat(dispatcher.getStats()).containsEntry("retried", 1L);
+	}
+
+	@Test
+	void submitInsideTransactionWaitsForCommit() {
+		dispatcher = dispatcher(1, 1);
+		dispatcher.start();
+
+		TransactionSynchronizationManager.initSynchronization();
+		dispatcher.submit(mail("commit@example.com"));
+		assertThat(stat("enqueued")).isZero();
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+		awaitTrue(() -> stat("sent") == 1L);
+		assertThat(sender.recipients()).containsExactly("commit@example.com");
+	}
+
+	@Test
+	void submitInsideRolledBackTransactionSendsNothing() {
+		dispatcher = dispatcher(1, 1);
+		dispatcher.start();
+
+		TransactionSynchronizationManager.initSynchronization();
+		dispatcher.submit(mail("rollback@example.com"));
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		sleep(200);
+		assertThat(stat("enqueued")).isZero();
+		assertThat(sender.callTimes()).isEmpty();
+	}
+
+	// --- Helpers ---
+
+	private MailDispatcher dispatcher(int batchSize, int maxAttempts) {
+		return new MailDispatcher(sender, "noreply@example.com", 100, batchSize, maxAttempts,
+				RETRY_BASE_MS, 10_000L, 1);
+	}
+
+	private static OutboundMail mail(String to) {
+		return new OutboundMail(to, "Subject", "Body", false);
+	}
+
+	private long stat(String name) {
+		return ((Number) dispatcher.getStats().get(name)).longValue();
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("timed out waiting for dispatcher").isLessThan(deadline);
+			sleep(10);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Records each SMTP "connection" (one doSend call) instead of talking to a server. */
+	private static final class FakeMailSender extends JavaMailSenderImpl {
+		private final List<Long> callTimes = Collections.synchronizedList(new ArrayList<>());
+		private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+		private final List<String> recipients = Collections.synchronizedList(new ArrayList<>());
+		private volatile int failuresLeft;
+		private volatile String rejectOnce;
+
+		void failNextCalls(int count) {
+			failuresLeft = count;
+		}
+
+		void rejectRecipientOnce(String recipient) {
+			rejectOnce = recipient;
+		}
+
+		List<Long> callTimes() {
+			return List.copyOf(callTimes);
+		}
+
+		List<Integer> batchSizes() {
+			return List.copyOf(batchSizes);
+		}
+
+		List<String> recipients() {
+			return List.copyOf(recipients);
+		}
+
+		@Override
+		protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+			callTimes.add(System.currentTimeMillis());
+			batchSizes.add(mimeMessages.length);
+			if (failuresLeft > 0) {
+				failuresLeft--;
+				throw new MailSendException("Connection refused");
+			}
+			Map<Object, Exception> rejected = new LinkedHashMap<>();
+			for (MimeMessage message : mimeMessages) {
+				String to = recipientOf(message);
+				recipients.add(to);
+				if (to.equals(rejectOnce)) {
+					rejectOnce = null;
+					rejected.put(message, new MessagingException("550 Mailbox unavailable"));
+				}
+			}
+			if (!rejected.isEmpty())
+				throw new MailSendException(rejected);
+		}
+
+		private static String recipientOf(MimeMessage message) {
+			try {
+				return message.getAllRecipients()[0].toString();
+			} catch (MessagingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
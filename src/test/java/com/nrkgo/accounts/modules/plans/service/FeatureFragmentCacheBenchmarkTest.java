@@ -0,0 +1,48 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.nrkgo.accounts.support.MicroBenchmark;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request cost of the features block in /{product}/init: the old
+ * parse-to-Map-and-serialize path vs. a warm FeatureFragmentCache hit, each
+ * measured including serialization of the surrounding plan object.
+ *
+ * Opt-in: mvn test -Dbenchmarks=true -Dtest=FeatureFragmentCacheBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = MicroBenchmark.ENABLED_PROPERTY, matches = "true")
+class FeatureFragmentCacheBenchmarkTest {
+
+	private static final int WARMUP = 50_000;
+	private static final int ITERATIONS = 200_000;
+
+	// Roughly the size of a paid plan's features_json
+	private static final String FEATURES_JSON = "{\"max_guides\":500,\"max_steps_per_guide\":200,"
+			+ "\"export_pdf\":true,\"export_html\":true,\"custom_branding\":true,\"team_folders\":true,"
+			+ "\"storage_mb\":10240,\"seats\":25,\"sso\":false,\"audit_log_days\":90,"
+			+ "\"integrations\":[\"slack\",\"jira\",\"confluence\"],\"support\":{\"tier\":\"priority\",\"sla_hours\":24}}";
+
+	@Test
+	void cachedFragmentBeatsPerRequestParse() {
+		FeatureFragmentCache cache = new FeatureFragmentCache(FeatureFragmentCacheTest.MAPPER, 100);
+
+		MicroBenchmark.Result parse = MicroBenchmark.measure("parse to Map + serialize", WARMUP, ITERATIONS,
+				() -> serialize(FeatureFragmentCacheTest.legacyFeatures(FEATURES_JSON)));
+		MicroBenchmark.Result cached = MicroBenchmark.measure("cached RawValue + serialize", WARMUP, ITERATIONS,
+				() -> serialize(cache.getFragment(7L, FEATURES_JSON)));
+
+		assertThat(cached.getBytesPerOp()).isLessThan(parse.getBytesPerOp());
+		assertThat(cached.getNanosPerOp()).isLessThan(parse.getNanosPerOp());
+	}
+
+	private static String serialize(Object features) {
+		try {
+			return FeatureFragmentCacheTest.MAPPER.writeValueAsString(FeatureFragmentCacheTest.wrap(features));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
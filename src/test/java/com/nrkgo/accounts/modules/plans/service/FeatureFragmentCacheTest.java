@@ -0,0 +1,94 @@
+package com.nrkgo.accounts.modules.plans.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The serialized init response must not change: every features_json below is
+ * written once through the old path (parse into a Map, fall back to the raw
+ * string) and once through the cached fragment, and the bytes compared.
+ */
+class FeatureFragmentCacheTest {
+
+	// Same naming as the app (spring.jackson.property-naming-strategy=SNAKE_CASE)
+	static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json()
+			.propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+			.build();
+
+	private final FeatureFragmentCache cache = new FeatureFragmentCache(MAPPER, 100);
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"{\"max_guides\":50,\"export_pdf\":true,\"branding\":false}",
+			"{\n  \"max_guides\" : 50,\n  \"tiers\" : [ 1, 2, 3 ]\n}",
+			"{\"nested\":{\"limits\":{\"storage_mb\":1024,\"seats\":null}},\"list\":[{\"a\":1},[]]}",
+			"{\"price\":9.50,\"ratio\":1e3,\"big\":12345678901234567890,\"neg\":-0.0,\"small\":1.0E-7}",
+			"{\"label\":\"Pro \\\"Plus\\\" </script> \\u00e9\\u2028 \\\\ tab\\t\",\"emoji\":\"\\uD83D\\uDE80\"}",
+			"{\"dup\":1,\"dup\":2}",
+			"{}",
+			"[1,2,3]",
+			"\"just a string\"",
+			"42",
+			"null",
+			"",
+			"   ",
+			"{not json",
+			"{\"a\":1} trailing",
+			"plain text features"
+	})
+	void fragmentSerializesExactlyLikeTheOldParse(String featuresJson) throws Exception {
+		String expected = MAPPER.writeValueAsString(wrap(legacyFeatures(featuresJson)));
+
+		Object first = cache.getFragment(7L, featuresJson);
+		Object cached = cache.getFragment(7L, featuresJson);
+
+		assertThat(MAPPER.writeValueAsString(wrap(first))).isEqualTo(expected);
+		assertThat(cached).isSameAs(first);
+	}
+
+	@Test
+	void jsonObjectIsEmbeddedAsRawValueAndInvalidJsonAsString() {
+		assertThat(cache.getFragment(1L, "{\"a\": 1}")).isInstanceOf(RawValue.class);
+		assertThat(cache.getFragment(1L, "{not json")).isEqualTo("{not json");
+		assertThat(cache.getFragment(1L, null)).isNull();
+	}
+
+	@Test
+	void changedFeaturesMissAndPlansDoNotShareEntries() {
+		cache.getFragment(1L, "{\"a\":1}");
+		cache.getFragment(1L, "{\"a\":1}");
+		cache.getFragment(1L, "{\"a\":2}");
+		cache.getFragment(2L, "{\"a\":1}");
+
+		assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 3L).containsEntry("size", 3);
+	}
+
+	/** The pre-cache ProductInitController logic, kept as the reference. */
+	static Object legacyFeatures(String featuresJson) {
+		try {
+			return MAPPER.readValue(featuresJson, new TypeReference<Map<String, Object>>() {
+			});
+		} catch (Exception e) {
+			return featuresJson; // fallback: raw string
+		}
+	}
+
+	static Map<String, Object> wrap(Object features) {
+		Map<String, Object> plan = new LinkedHashMap<>();
+		plan.put("plan_id", 7L);
+		plan.put("features", features);
+		plan.put("status", 1);
+		return plan;
+	}
+}
@@ -0,0 +1,95 @@
+package com.nrkgo.accounts.modules.snapsteps.controller;
+
+import com.nrkgo.accounts.common.auth.AuthContext;
+import com.nrkgo.accounts.model.User;
+import com.nrkgo.accounts.modules.snapsteps.service.SnapGuideService;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.channels.WritableByteChannel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Screenshot blobs are shared by hash across tenants; a read is only served
+ * when one of the caller's guides in the current org references the hash.
+ */
+class ScreenshotControllerTest {
+
+	private static final long ORG_ID = 22L;
+	private static final String HASH = "a".repeat(64);
+
+	private final ScreenshotStore store = mock(ScreenshotStore.class);
+	private final SnapGuideService guideService = mock(SnapGuideService.class);
+	private final AuthContext auth = mock(AuthContext.class);
+	private final ScreenshotController controller = new ScreenshotController(store, guideService);
+
+	private final User user = new User();
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		user.setId(11L);
+		when(auth.getUser()).thenReturn(user);
+		when(auth.getOrgId()).thenReturn(ORG_ID);
+		when(store.size(HASH)).thenReturn(3L);
+	}
+
+	@Test
+	void referencedScreenshotIsServed() throws Exception {
+		when(guideService.canViewScreenshot(HASH, user, ORG_ID)).thenReturn(true);
+
+		ResponseEntity<?> result = get(HASH, null);
+
+		assertThat(result).isNull();
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentType()).isEqualTo("image/png");
+		verify(store).transferTo(anyString(), any(WritableByteChannel.class));
+	}
+
+	@Test
+	void unreferencedScreenshotIsNotFoundEvenIfStored() throws Exception {
+		when(guideService.canViewScreenshot(HASH, user, ORG_ID)).thenReturn(false);
+
+		assertThat(get(HASH, null).getStatusCode().value()).isEqualTo(404);
+		// The store is not consulted, so the response cannot tell whether the blob exists
+		verify(store, never()).size(anyString());
+	}
+
+	@Test
+	void conditionalRequestDoesNotBypassTheCheck() throws Exception {
+		when(guideService.canViewScreenshot(HASH, user, ORG_ID)).thenReturn(false);
+
+		assertThat(get(HASH, "\"" + HASH + "\"").getStatusCode().value()).isEqualTo(404);
+	}
+
+	@Test
+	void invalidHashIsRejectedWithoutALookup() throws Exception {
+		assertThat(get("not-a-hash", null).getStatusCode().value()).isEqualTo(404);
+		verify(guideService, never()).canViewScreenshot(anyString(), any(User.class), any());
+	}
+
+	@Test
+	void onlyWellFormedReferencesHaveAHash() {
+		assertThat(ScreenshotRefs.hashOf(ScreenshotRefs.toRef(HASH, "image/png"))).isEqualTo(HASH);
+		assertThat(ScreenshotRefs.hashOf(ScreenshotRefs.PATH_PREFIX + HASH)).isNull();
+		assertThat(ScreenshotRefs.hashOf(ScreenshotRefs.PATH_PREFIX + "short.png")).isNull();
+		assertThat(ScreenshotRefs.hashOf("https://cdn.example.com/" + HASH + ".png")).isNull();
+		assertThat(ScreenshotRefs.hashOf(null)).isNull();
+	}
+
+	private ResponseEntity<?> get(String hash, String ifNoneMatch) throws Exception {
+		return controller.getScreenshot(auth, hash, "png", ifNoneMatch, new MockHttpServletRequest(), response);
+	}
+}
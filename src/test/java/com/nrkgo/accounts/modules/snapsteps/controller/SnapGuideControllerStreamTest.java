@@ -0,0 +1,132 @@
+package com.nrkgo.accounts.modules.snapsteps.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.nrkgo.accounts.common.auth.AuthContext;
+import com.nrkgo.accounts.common.response.ApiResponse;
+import com.nrkgo.accounts.model.User;
+import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
+import com.nrkgo.accounts.modules.snapsteps.service.SnapGuideService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET /snapsteps/api/guides without paging streams the full list. Checks the
+ * envelope against ApiResponse.success and how a failure is reported before
+ * and after the response is committed.
+ */
+class SnapGuideControllerStreamTest {
+
+	private static final long USER_ID = 11L;
+	private static final long ORG_ID = 22L;
+
+	private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+			.propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+			.build();
+	private final SnapGuideService guideService = mock(SnapGuideService.class);
+	private final AuthContext auth = mock(AuthContext.class);
+	private final SnapGuideController controller = new SnapGuideController(guideService, mapper);
+
+	private MockHttpServletResponse response;
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setId(USER_ID);
+		when(auth.getUser()).thenReturn(user);
+		when(auth.getOrgId()).thenReturn(ORG_ID);
+		response = new MockHttpServletResponse();
+	}
+
+	@Test
+	void streamedEnvelopeMatchesApiResponseSuccess() throws Exception {
+		List<SnapGuide> guides = List.of(guide(1, "[]"), guide(2, "[{\"id\":\"s1\",\"description\":\"Click \\\"Save\\\"\"}]"));
+		streamGuides(guides, null);
+
+		assertThat(listGuides()).isNull();
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentType()).startsWith("application/json");
+		assertThat(response.getContentAsString())
+				.isEqualTo(mapper.writeValueAsString(ApiResponse.success("Guides fetched successfully", guides)));
+	}
+
+	@Test
+	void emptyListStreamsEmptyDataArray() throws Exception {
+		streamGuides(List.of(), null);
+
+		listGuides();
+		assertThat(response.getContentAsString())
+				.isEqualTo("{\"success\":true,\"message\":\"Guides fetched successfully\",\"data\":[]}");
+	}
+
+	@Test
+	void failureBeforeCommitIsAPlain500() throws Exception {
+		streamGuides(List.of(guide(1, "[]")), new DataAccessResourceFailureException("Connection reset"));
+
+		listGuides();
+		assertThat(response.getStatus()).isEqualTo(500);
+		JsonNode body = mapper.readTree(response.getContentAsString());
+		assertThat(body.get("success").asBoolean()).isFalse();
+		assertThat(body.has("data")).isFalse();
+	}
+
+	@Test
+	void failureAfterCommitEndsEnvelopeWithError() throws Exception {
+		response.setBufferSize(1024);
+		String bigSteps = "[{\"id\":\"s1\",\"description\":\"" + "x".repeat(20_000) + "\"}]";
+		streamGuides(List.of(guide(1, bigSteps), guide(2, bigSteps), guide(3, bigSteps)),
+				new DataAccessResourceFailureException("Connection reset"));
+
+		listGuides();
+		assertThat(response.isCommitted()).isTrue();
+		assertThat(response.getStatus()).isEqualTo(200);
+		// Still a complete document, but flagged so clients do not take it for the whole list
+		JsonNode body = mapper.readTree(response.getContentAsString());
+		assertThat(body.get("success").asBoolean()).isTrue();
+		assertThat(body.get("data")).hasSize(3);
+		assertThat(body.get("error").asText()).contains("incomplete");
+	}
+
+	// --- Helpers ---
+
+	private Object listGuides() {
+		return controller.listGuides(new MockHttpServletRequest(), response, auth, null, null, null, null, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void streamGuides(List<SnapGuide> guides, RuntimeException failure) {
+		doAnswer(invocation -> {
+			Consumer<SnapGuide> consumer = invocation.getArgument(2);
+			guides.forEach(consumer);
+			if (failure != null)
+				throw failure;
+			return null;
+		}).when(guideService).streamGuidesForUser(any(User.class), eq(ORG_ID), any(Consumer.class));
+	}
+
+	private static SnapGuide guide(long id, String stepsJson) {
+		SnapGuide guide = new SnapGuide();
+		guide.setId(id);
+		guide.setExternalId("guide_" + id);
+		guide.setTitle("Guide " + id);
+		guide.setStepsJson(stepsJson);
+		guide.setTotalSteps(1);
+		guide.setVersion(0L);
+		return guide;
+	}
+}
@@ -0,0 +1,128 @@
+package com.nrkgo.accounts.modules.snapsteps.repository;
+
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideSummaryDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 plan smoke check for the ss_guides hot queries, part of the default
+ * build. The schema is generated from the JPA mapping (including @Table
+ * indexes) on H2 in MySQL mode; each test fails if H2 falls back to a table
+ * scan or stops using the index the query was designed for. H2's planner is
+ * not MySQL's: SnapGuideMySqlPlanTest (-Pmysql-it) checks the same queries
+ * with MySQL's EXPLAIN on the Flyway schema. Also pages through guides
+ * without a modified_time, which sort after all others.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:guide_explain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SnapGuideIndexUsageTest {
+
+	private static final String LIST_INDEX = "idx_guides_user_org_modified";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private SnapGuideRepository guideRepository;
+
+	private JdbcTemplate jdbc;
+
+	@BeforeAll
+	void seed() {
+		jdbc = new JdbcTemplate(dataSource);
+		// Guides only: users/organizations rows are irrelevant to the plans
+		jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			rows.add(new Object[] { "guide_" + i, (long) (i % 20), (long) (i % 5), 1_000_000L + i });
+		}
+		jdbc.batchUpdate("INSERT INTO ss_guides (external_id, user_id, org_id, title, steps_json, total_steps, "
+				+ "modified_time, version) VALUES (?, ?, ?, 'Guide', '[]', 0, ?, 0)", rows);
+		// Owner 99/99: two timestamped guides and three legacy ones without modified_time
+		jdbc.update("INSERT INTO ss_guides (external_id, user_id, org_id, title, steps_json, total_steps, "
+				+ "modified_time, version) VALUES ('nul_1', 99, 99, 'Guide', '[]', 0, NULL, 0), "
+				+ "('dated_1', 99, 99, 'Guide', '[]', 0, 5, 0), ('nul_2', 99, 99, 'Guide', '[]', 0, NULL, 0), "
+				+ "('dated_2', 99, 99, 'Guide', '[]', 0, 7, 0), ('nul_3', 99, 99, 'Guide', '[]', 0, NULL, 0)");
+		jdbc.execute("ANALYZE");
+	}
+
+	@Test
+	void listAndStreamUseUserOrgIndex() {
+		assertUsesIndex("SELECT id FROM ss_guides WHERE user_id = 3 AND org_id = 3", LIST_INDEX);
+	}
+
+	@Test
+	void offsetPageAndCountUseUserOrgIndex() {
+		assertUsesIndex("SELECT id, title, modified_time FROM ss_guides WHERE user_id = 3 AND org_id = 3 "
+				+ "ORDER BY modified_time DESC LIMIT 30 OFFSET 60", LIST_INDEX);
+		assertUsesIndex("SELECT COUNT(id) FROM ss_guides WHERE user_id = 3 AND org_id = 3", LIST_INDEX);
+	}
+
+	@Test
+	void keysetPageUsesUserOrgIndex() {
+		assertUsesIndex("SELECT id, title, modified_time FROM ss_guides WHERE user_id = 3 AND org_id = 3 "
+				+ "AND (modified_time < 1001500 OR (modified_time = 1001500 AND id < 1500) "
+				+ "OR modified_time IS NULL) ORDER BY modified_time DESC, id DESC LIMIT 31", LIST_INDEX);
+		assertUsesIndex("SELECT id, title, modified_time FROM ss_guides WHERE user_id = 3 AND org_id = 3 "
+				+ "AND modified_time IS NULL AND id < 1500 ORDER BY modified_time DESC, id DESC LIMIT 31", LIST_INDEX);
+	}
+
+	@Test
+	void keysetPagesReachGuidesWithoutModifiedTime() {
+		PageRequest two = PageRequest.of(0, 2);
+		List<SnapGuideSummaryDto> first = guideRepository.findSummariesFirstPage(99L, 99L, two);
+		assertThat(first).extracting(SnapGuideSummaryDto::getExternalId).containsExactly("dated_2", "dated_1");
+
+		SnapGuideSummaryDto last = first.get(1);
+		List<SnapGuideSummaryDto> second = guideRepository.findSummariesAfter(99L, 99L, last.getModifiedTime(),
+				last.getId(), two);
+		assertThat(second).extracting(SnapGuideSummaryDto::getExternalId).containsExactly("nul_3", "nul_2");
+
+		List<SnapGuideSummaryDto> third = guideRepository.findSummariesAfterNullModified(99L, 99L,
+				second.get(1).getId(), two);
+		assertThat(third).extracting(SnapGuideSummaryDto::getExternalId).containsExactly("nul_1");
+	}
+
+	@Test
+	void externalIdLookupsUseUniqueIndex() {
+		assertNoTableScan("SELECT id FROM ss_guides WHERE external_id = 'guide_42'");
+		assertNoTableScan("SELECT external_id, user_id, org_id, version FROM ss_guides "
+				+ "WHERE external_id IN ('guide_1', 'guide_2', 'guide_3')");
+	}
+
+	// --- Helpers ---
+
+	private String explain(String sql) {
+		return jdbc.queryForObject("EXPLAIN " + sql, String.class).toLowerCase(Locale.ROOT);
+	}
+
+	private void assertUsesIndex(String sql, String index) {
+		assertThat(explain(sql)).as("plan for: %s", sql).contains(index).doesNotContain("tablescan");
+	}
+
+	private void assertNoTableScan(String sql) {
+		assertThat(explain(sql)).as("plan for: %s", sql).doesNotContain("tablescan");
+	}
+}
@@ -0,0 +1,186 @@
+package com.nrkgo.accounts.modules.snapsteps.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ss_guides hot queries explained by MySQL itself, on the schema the
+ * Flyway migrations create. SnapGuideIndexUsageTest only sees H2's planner;
+ * this is the check that the indexes in V3/V6 are the ones MySQL picks.
+ * Also runs the owner-guarded bulk upsert against the real ON DUPLICATE KEY
+ * UPDATE semantics, and the V6 screenshot backfill over a malformed row.
+ *
+ * Needs Docker: ./mvnw test -Pmysql-it
+ */
+@Tag("mysql")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SnapGuideMySqlPlanTest {
+
+	private static final String LIST_INDEX = "idx_guides_user_org_modified";
+	private static final String HASH = "a".repeat(64);
+	private static final String BACKFILL_HASH = "b".repeat(64);
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+			.withUrlParam("rewriteBatchedStatements", "true");
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbc;
+
+	@BeforeAll
+	void migrateAndSeed() {
+		dataSource = new SingleConnectionDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword(),
+				true);
+		jdbc = new JdbcTemplate(dataSource);
+
+		// Up to V5 first, so V6's backfill runs over existing guides, one with broken steps_json
+		migrate("5");
+		// Guides only: users/organizations rows are irrelevant to the plans
+		jdbc.execute("SET FOREIGN_KEY_CHECKS = 0");
+		jdbc.update("INSERT INTO ss_guides (external_id, user_id, org_id, steps_json) VALUES "
+				+ "('legacy_ok', 1, 1, ?), ('legacy_broken', 1, 1, ?)",
+				"[{\"id\":\"s1\",\"screenshot\":\"/snapsteps/api/screenshots/" + BACKFILL_HASH + ".png\"}]",
+				"[{\"id\":\"s1\",\"screenshot\":\"/snapsteps/api/screenshots/" + BACKFILL_HASH + ".png\"");
+		migrate(null);
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			rows.add(new Object[] { "guide_" + i, (long) (i % 20), (long) (i % 5), "Invoice export step " + i,
+					1_000_000L + i });
+		}
+		jdbc.batchUpdate("INSERT INTO ss_guides (external_id, user_id, org_id, title, steps_json, total_steps, "
+				+ "search_text, modified_time, version) VALUES (?, ?, ?, 'Guide', '[]', 0, ?, ?, 0)", rows);
+		jdbc.update("INSERT INTO ss_guide_screenshots (guide_id, hash) SELECT id, ? FROM ss_guides WHERE id <= 5",
+				HASH);
+		jdbc.execute("ANALYZE TABLE ss_guides, ss_guide_screenshots");
+	}
+
+	@AfterAll
+	void close() {
+		if (dataSource != null)
+			dataSource.destroy();
+	}
+
+	@Test
+	void listCountAndStreamUseUserOrgIndex() {
+		assertPlan("SELECT id FROM ss_guides WHERE user_id = 3 AND org_id = 3", "ref", LIST_INDEX);
+		assertPlan("SELECT COUNT(id) FROM ss_guides WHERE user_id = 3 AND org_id = 3", "ref", LIST_INDEX);
+	}
+
+	@Test
+	void offsetPageIsReadInIndexOrder() {
+		Map<String, Object> plan = assertPlan("SELECT id, title, modified_time FROM ss_guides "
+				+ "WHERE user_id = 3 AND org_id = 3 ORDER BY modified_time DESC LIMIT 30 OFFSET 60", "ref", LIST_INDEX);
+		assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+	}
+
+	@Test
+	void keysetPageIsARangeInIndexOrder() {
+		Map<String, Object> plan = assertPlan("SELECT id, title, modified_time FROM ss_guides "
+				+ "WHERE user_id = 3 AND org_id = 3 "
+				+ "AND (modified_time < 1001500 OR (modified_time = 1001500 AND id < 1500) "
+				+ "OR modified_time IS NULL) ORDER BY modified_time DESC, id DESC LIMIT 31", "range", LIST_INDEX);
+		assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+		// After a guide without modified_time only the NULL tail is left
+		plan = assertPlan("SELECT id, title, modified_time FROM ss_guides WHERE user_id = 3 AND org_id = 3 "
+				+ "AND modified_time IS NULL AND id < 1500 ORDER BY modified_time DESC, id DESC LIMIT 31", "range",
+				LIST_INDEX);
+		assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+	}
+
+	@Test
+	void externalIdLookupsUseUniqueIndex() {
+		assertPlan("SELECT id FROM ss_guides WHERE external_id = 'guide_42'", "const", "external_id");
+		// SnapGuideBulkWriter's outcome read-back
+		assertPlan("SELECT external_id, user_id, org_id, version FROM ss_guides "
+				+ "WHERE external_id IN ('guide_1', 'guide_2', 'guide_3') FOR UPDATE", "range", "external_id");
+	}
+
+	@Test
+	void searchUsesFulltextIndex() {
+		assertPlan("SELECT g.id FROM ss_guides g WHERE g.user_id = 3 AND g.org_id = 3 "
+				+ "AND MATCH(g.search_text) AGAINST ('+invoice*' IN BOOLEAN MODE)", "fulltext", "ft_guide_search");
+	}
+
+	@Test
+	void screenshotCheckUsesHashIndex() {
+		List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN SELECT EXISTS (SELECT 1 FROM "
+				+ "ss_guide_screenshots gs JOIN ss_guides g ON g.id = gs.guide_id "
+				+ "WHERE gs.hash = '" + HASH + "' AND g.user_id = 3 AND g.org_id = 3)");
+		assertThat(plan).as("plan: %s", plan).noneMatch(row -> "ALL".equals(row.get("type")));
+		assertThat(plan).anyMatch(row -> "idx_screenshot_hash".equals(row.get("key")));
+	}
+
+	@Test
+	void screenshotBackfillSkipsMalformedStepsJson() {
+		assertThat(jdbc.queryForList("SELECT g.external_id FROM ss_guide_screenshots gs "
+				+ "JOIN ss_guides g ON g.id = gs.guide_id WHERE gs.hash = ?", String.class, BACKFILL_HASH))
+				.containsExactly("legacy_ok");
+	}
+
+	@Test
+	void bulkUpsertLeavesOtherOwnersGuidesAlone() {
+		SnapGuideBulkWriter writer = new SnapGuideBulkWriter(jdbc, 100);
+
+		Map<String, SnapGuideBulkWriter.Outcome> created = writer.upsert(List.of(row("bulk_1", 100L, 1L, "Mine"),
+				row("bulk_2", 100L, 1L, "Mine too")));
+		assertThat(created).containsOnly(Map.entry("bulk_1", SnapGuideBulkWriter.Outcome.CREATED),
+				Map.entry("bulk_2", SnapGuideBulkWriter.Outcome.CREATED));
+
+		// Another user, and the same user in another org, hit the existing external_ids
+		Map<String, SnapGuideBulkWriter.Outcome> foreign = writer.upsert(List.of(row("bulk_1", 200L, 1L, "Theirs"),
+				row("bulk_2", 100L, 2L, "Other org"), row("bulk_3", 200L, 1L, "Theirs")));
+		assertThat(foreign).containsOnly(Map.entry("bulk_1", SnapGuideBulkWriter.Outcome.FORBIDDEN),
+				Map.entry("bulk_2", SnapGuideBulkWriter.Outcome.FORBIDDEN),
+				Map.entry("bulk_3", SnapGuideBulkWriter.Outcome.CREATED));
+		assertThat(jdbc.queryForMap("SELECT user_id, org_id, title, version FROM ss_guides WHERE external_id = 'bulk_1'"))
+				.containsEntry("user_id", 100L).containsEntry("org_id", 1L)
+				.containsEntry("title", "Mine").containsEntry("version", 0L);
+
+		Map<String, SnapGuideBulkWriter.Outcome> updated = writer.upsert(List.of(row("bulk_1", 100L, 1L, "Renamed")));
+		assertThat(updated).containsOnly(Map.entry("bulk_1", SnapGuideBulkWriter.Outcome.UPDATED));
+		assertThat(jdbc.queryForMap("SELECT title, version FROM ss_guides WHERE external_id = 'bulk_1'"))
+				.containsEntry("title", "Renamed").containsEntry("version", 1L);
+	}
+
+	// --- Helpers ---
+
+	private static void migrate(String target) {
+		var config = Flyway.configure()
+				.dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+				.locations("classpath:db/migration");
+		if (target != null)
+			config.target(target);
+		config.load().migrate();
+	}
+
+	private Map<String, Object> assertPlan(String sql, String type, String key) {
+		List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql);
+		assertThat(plan).as("plan for: %s", sql).hasSize(1);
+		Map<String, Object> row = plan.get(0);
+		assertThat(row.get("type")).as("access type for: %s -> %s", sql, row).isEqualTo(type);
+		assertThat(row.get("key")).as("index for: %s -> %s", sql, row).isEqualTo(key);
+		return row;
+	}
+
+	private static SnapGuideBulkWriter.Row row(String externalId, Long userId, Long orgId, String title) {
+		return new SnapGuideBulkWriter.Row(externalId, userId, orgId, title, "[]", 0, null, "cloud", title,
+				System.currentTimeMillis());
+	}
+}
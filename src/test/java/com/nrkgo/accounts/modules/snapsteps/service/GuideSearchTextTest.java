@@ -0,0 +1,26 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User input for the title LIKE fallback is matched literally: wildcards
+ * and the escape character itself are escaped with '!'.
+ */
+class GuideSearchTextTest {
+
+	@Test
+	void likeWildcardsAreEscaped() {
+		assertThat(GuideSearchText.toLikeLiteral("%")).isEqualTo("!%");
+		assertThat(GuideSearchText.toLikeLiteral("a_b")).isEqualTo("a!_b");
+		assertThat(GuideSearchText.toLikeLiteral("hi!")).isEqualTo("hi!!");
+		assertThat(GuideSearchText.toLikeLiteral("C:\\x")).isEqualTo("C:\\x");
+	}
+
+	@Test
+	void shortTermsFallBackToTitleSearch() {
+		assertThat(GuideSearchText.toBooleanQuery("%_")).isNull();
+		assertThat(GuideSearchText.toBooleanQuery("setup vpn")).isEqualTo("+setup* +vpn*");
+	}
+}
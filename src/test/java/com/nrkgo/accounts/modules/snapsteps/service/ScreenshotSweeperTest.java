@@ -0,0 +1,90 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.nrkgo.accounts.modules.snapsteps.repository.GuideScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.LocalScreenshotStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Orphaned screenshot blobs are deleted once past the grace period; blobs
+ * that are referenced, or were uploaded recently, stay.
+ */
+class ScreenshotSweeperTest {
+
+	private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+	@TempDir
+	Path root;
+
+	private final Set<String> referenced = new HashSet<>();
+
+	@Test
+	void deletesOnlyOldUnreferencedBlobs() throws Exception {
+		LocalScreenshotStore store = new LocalScreenshotStore(root.toString());
+		String kept = store.put(bytes("kept"));
+		String orphan = store.put(bytes("orphan"));
+		String fresh = store.put(bytes("fresh"));
+		referenced.add(kept);
+		age(store, kept, 2 * DAY);
+		age(store, orphan, 2 * DAY);
+
+		sweeper(store).sweep();
+
+		assertThat(store.exists(kept)).isTrue();
+		assertThat(store.exists(orphan)).isFalse();
+		// Younger than min-age: its guide may not be committed yet
+		assertThat(store.exists(fresh)).isTrue();
+	}
+
+	@Test
+	void reuploadRestartsTheGracePeriod() throws Exception {
+		LocalScreenshotStore store = new LocalScreenshotStore(root.toString());
+		String hash = store.put(bytes("same"));
+		age(store, hash, 2 * DAY);
+
+		store.put(bytes("same"));
+		sweeper(store).sweep();
+
+		assertThat(store.exists(hash)).isTrue();
+	}
+
+	@Test
+	void localStoreRequiresAConfiguredDirectory() {
+		assertThatThrownBy(() -> new LocalScreenshotStore(""))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("SCREENSHOT_DIR");
+	}
+
+	// --- Helpers ---
+
+	private ScreenshotSweeper sweeper(LocalScreenshotStore store) {
+		GuideScreenshotRefs refs = new GuideScreenshotRefs(null) {
+			@Override
+			public Set<String> referencedHashes(Collection<String> hashes) {
+				return hashes.stream().filter(referenced::contains).collect(Collectors.toSet());
+			}
+		};
+		return new ScreenshotSweeper(store, refs, true, DAY, 2);
+	}
+
+	private static void age(LocalScreenshotStore store, String hash, long millis) throws Exception {
+		Files.setLastModifiedTime(store.localFile(hash), FileTime.fromMillis(System.currentTimeMillis() - millis));
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,110 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.model.Organization;
+import com.nrkgo.accounts.model.User;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideBulkResult;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideDto;
+import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
+import com.nrkgo.accounts.modules.snapsteps.repository.GuideScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideBulkWriter;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideRepository;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
+import com.nrkgo.accounts.repository.OrganizationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * external_id ownership on both save paths, and bulk dedupe matching
+ * MySQL's case-insensitive UNIQUE key.
+ */
+class SnapGuideSaveOwnershipTest {
+
+	private final SnapGuideRepository guideRepository = mock(SnapGuideRepository.class);
+	private final OrganizationRepository organizationRepository = mock(OrganizationRepository.class);
+	private final SnapGuideBulkWriter bulkWriter = mock(SnapGuideBulkWriter.class);
+	private final SnapGuideServiceImpl service = new SnapGuideServiceImpl(guideRepository, organizationRepository,
+			new ObjectMapper(), mock(EntityManager.class), mock(ScreenshotStore.class), bulkWriter,
+			mock(GuideScreenshotRefs.class), 500);
+
+	private final User alice = user(1L);
+	private final User bob = user(2L);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void mixedCaseDuplicatesInOneBulkRequestAreRejected() {
+		when(organizationRepository.existsById(10L)).thenReturn(true);
+		when(bulkWriter.upsert(anyList())).thenAnswer(invocation -> {
+			Map<String, SnapGuideBulkWriter.Outcome> outcomes = new HashMap<>();
+			for (SnapGuideBulkWriter.Row row : (List<SnapGuideBulkWriter.Row>) invocation.getArgument(0))
+				outcomes.put(row.getExternalId(), SnapGuideBulkWriter.Outcome.CREATED);
+			return outcomes;
+		});
+
+		List<SnapGuideBulkResult> results = service.saveGuides(List.of(guide("guide_abc"), guide("GUIDE_ABC"),
+				guide("guide_other")), alice, 10L);
+
+		assertThat(results).extracting(SnapGuideBulkResult::getStatus).containsExactly(SnapGuideBulkResult.CREATED,
+				SnapGuideBulkResult.ERROR, SnapGuideBulkResult.CREATED);
+		assertThat(results.get(1).getMessage()).isEqualTo("Duplicate external_id in request");
+		ArgumentCaptor<List<SnapGuideBulkWriter.Row>> rows = ArgumentCaptor.forClass(List.class);
+		verify(bulkWriter).upsert(rows.capture());
+		assertThat(rows.getValue()).extracting(SnapGuideBulkWriter.Row::getExternalId)
+				.containsExactly("guide_abc", "guide_other");
+	}
+
+	@Test
+	void singleSaveDoesNotTakeOverAnotherUsersGuide() {
+		when(organizationRepository.findById(anyLong())).thenReturn(Optional.of(org(10L)));
+		SnapGuide existing = new SnapGuide();
+		existing.setExternalId("guide_abc");
+		existing.setUser(alice);
+		existing.setOrg(org(10L));
+		when(guideRepository.findByExternalId("guide_abc")).thenReturn(Optional.of(existing));
+
+		assertThatThrownBy(() -> service.saveGuide(guide("guide_abc"), bob, 10L))
+				.isInstanceOf(SecurityException.class);
+		assertThatThrownBy(() -> service.saveGuide(guide("guide_abc"), alice, 20L))
+				.isInstanceOf(SecurityException.class);
+		verify(guideRepository, never()).save(any(SnapGuide.class));
+		assertThat(existing.getUser()).isSameAs(alice);
+	}
+
+	// --- Helpers ---
+
+	private static SnapGuideDto guide(String externalId) {
+		SnapGuideDto dto = new SnapGuideDto();
+		dto.setExternalId(externalId);
+		dto.setTitle("Guide");
+		dto.setSteps(List.of());
+		return dto;
+	}
+
+	private static User user(long id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+
+	private static Organization org(long id) {
+		Organization org = new Organization();
+		org.setId(id);
+		return org;
+	}
+}
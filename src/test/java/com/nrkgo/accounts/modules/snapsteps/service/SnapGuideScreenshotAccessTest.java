@@ -0,0 +1,175 @@
+package com.nrkgo.accounts.modules.snapsteps.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nrkgo.accounts.common.auth.AuthContext;
+import com.nrkgo.accounts.model.Organization;
+import com.nrkgo.accounts.model.User;
+import com.nrkgo.accounts.modules.snapsteps.controller.ScreenshotController;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapGuideDto;
+import com.nrkgo.accounts.modules.snapsteps.dto.SnapStepDto;
+import com.nrkgo.accounts.modules.snapsteps.model.SnapGuide;
+import com.nrkgo.accounts.modules.snapsteps.repository.GuideScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideBulkWriter;
+import com.nrkgo.accounts.modules.snapsteps.repository.SnapGuideRepository;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotRefs;
+import com.nrkgo.accounts.modules.snapsteps.storage.ScreenshotStore;
+import com.nrkgo.accounts.repository.OrganizationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saving a screenshot reference grants read access to the blob, so a client
+ * must not be able to claim a hash it never uploaded. Runs the real service
+ * and controller over an in-memory reference table.
+ */
+class SnapGuideScreenshotAccessTest {
+
+	private static final String HASH = "c".repeat(64);
+	private static final String PNG_DATA_URL = "data:image/png;base64,iVBORw0KGgo=";
+
+	private final InMemoryScreenshotRefs refs = new InMemoryScreenshotRefs();
+	private final SnapGuideRepository guideRepository = mock(SnapGuideRepository.class);
+	private final OrganizationRepository organizationRepository = mock(OrganizationRepository.class);
+	private final ScreenshotStore store = mock(ScreenshotStore.class);
+	private final SnapGuideServiceImpl service = new SnapGuideServiceImpl(guideRepository, organizationRepository,
+			new ObjectMapper(), mock(EntityManager.class), store, mock(SnapGuideBulkWriter.class), refs, 500);
+	private final ScreenshotController controller = new ScreenshotController(store, service);
+
+	private final User alice = user(1L);
+	private final User bob = user(2L);
+
+	@BeforeEach
+	void setUp() throws Exception {
+		when(store.put(any(byte[].class))).thenReturn(HASH);
+		when(store.size(HASH)).thenReturn(8L);
+		when(organizationRepository.findById(anyLong())).thenAnswer(invocation -> {
+			Organization org = new Organization();
+			org.setId(invocation.getArgument(0));
+			return Optional.of(org);
+		});
+		when(guideRepository.findByExternalId(anyString())).thenReturn(Optional.empty());
+		when(guideRepository.save(any(SnapGuide.class))).thenAnswer(invocation -> {
+			SnapGuide guide = invocation.getArgument(0);
+			refs.owners.put(guide.getExternalId(), List.of(guide.getUser().getId(), guide.getOrg().getId()));
+			return guide;
+		});
+	}
+
+	@Test
+	void uploaderCanReadTheScreenshot() throws Exception {
+		service.saveGuide(guide("guide_a", PNG_DATA_URL), alice, 10L);
+
+		assertThat(status(alice, 10L)).isEqualTo(200);
+	}
+
+	@Test
+	void referenceToAnotherTenantsHashIsRejectedAndStaysUnreadable() throws Exception {
+		service.saveGuide(guide("guide_a", PNG_DATA_URL), alice, 10L);
+
+		String stolenRef = ScreenshotRefs.toRef(HASH, "image/png");
+		assertThatThrownBy(() -> service.saveGuide(guide("guide_b", stolenRef), bob, 20L))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown screenshot reference");
+		assertThat(refs.refs).doesNotContainKey("guide_b");
+		assertThat(status(bob, 20L)).isEqualTo(404);
+		// Same org does not help either: access follows the user's own guides
+		assertThatThrownBy(() -> service.saveGuide(guide("guide_c", stolenRef), bob, 10L))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(status(bob, 10L)).isEqualTo(404);
+	}
+
+	@Test
+	void resyncingOwnReferenceIsAccepted() throws Exception {
+		service.saveGuide(guide("guide_a", PNG_DATA_URL), alice, 10L);
+
+		service.saveGuide(guide("guide_a2", ScreenshotRefs.toRef(HASH, "image/png")), alice, 10L);
+
+		assertThat(refs.refs.get("guide_a2")).containsExactly(HASH);
+	}
+
+	@Test
+	void referenceInsideADescriptionGrantsNothing() throws Exception {
+		SnapGuideDto dto = guide("guide_b", null);
+		dto.getSteps().get(0).setDescription("see " + ScreenshotRefs.toRef(HASH, "image/png"));
+
+		service.saveGuide(dto, bob, 20L);
+
+		assertThat(refs.refs.get("guide_b")).isEmpty();
+		assertThat(status(bob, 20L)).isEqualTo(404);
+	}
+
+	// --- Helpers ---
+
+	private int status(User user, Long orgId) throws Exception {
+		AuthContext auth = mock(AuthContext.class);
+		when(auth.getUser()).thenReturn(user);
+		when(auth.getOrgId()).thenReturn(orgId);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		var result = controller.getScreenshot(auth, HASH, "png", null, new MockHttpServletRequest(), response);
+		return result != null ? result.getStatusCode().value() : response.getStatus();
+	}
+
+	private static SnapGuideDto guide(String externalId, String screenshot) {
+		SnapStepDto step = new SnapStepDto();
+		step.setId("s1");
+		step.setScreenshot(screenshot);
+		SnapGuideDto dto = new SnapGuideDto();
+		dto.setExternalId(externalId);
+		dto.setTitle("Guide");
+		dto.setSteps(List.of(step));
+		return dto;
+	}
+
+	private static User user(long id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+
+	/** ss_guide_screenshots joined to ss_guides owners, keyed by external_id. */
+	private static final class InMemoryScreenshotRefs extends GuideScreenshotRefs {
+		final Map<String, List<Long>> owners = new HashMap<>();
+		final Map<String, Set<String>> refs = new HashMap<>();
+
+		InMemoryScreenshotRefs() {
+			super(null);
+		}
+
+		@Override
+		public void replace(Map<String, ? extends Collection<String>> hashesByExternalId) {
+			hashesByExternalId.forEach((externalId, hashes) -> refs.put(externalId, new HashSet<>(hashes)));
+		}
+
+		@Override
+		public Set<String> visibleHashes(Collection<String> hashes, Long userId, Long orgId) {
+			return hashes.stream().filter(hash -> isVisible(hash, userId, orgId)).collect(Collectors.toSet());
+		}
+
+		@Override
+		public boolean isVisible(String hash, Long userId, Long orgId) {
+			return refs.entrySet().stream()
+					.filter(entry -> entry.getValue().contains(hash))
+					.anyMatch(entry -> List.of(userId, orgId).equals(owners.get(entry.getKey())));
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.nrkgo.accounts.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-test timer for before/after comparisons: warm up, then measure
+ * average time and heap allocation per call on the current thread.
+ *
+ * Not a JMH replacement; numbers are only comparable within one run. Tests
+ * using it are opt-in (-Dbenchmarks=true) so timing noise cannot fail the
+ * normal build.
+ */
+public final class MicroBenchmark {
+
+    public static final String ENABLED_PROPERTY = "benchmarks";
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBenchmark.class);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Folds every result in so the JIT cannot drop the measured work
+    private static volatile int sink;
+
+    private MicroBenchmark() {
+    }
+
+    public static Result measure(String label, int warmupIterations, int iterations, Supplier<?> operation) {
+        run(warmupIterations, operation);
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(iterations, operation);
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        Result result = new Result(label, (double) elapsed / iterations, (double) bytes / iterations);
+        log.info("{}", result);
+        return result;
+    }
+
+    private static void run(int iterations, Supplier<?> operation) {
+        int hash = 0;
+        for (int i = 0; i < iterations; i++) {
+            Object value = operation.get();
+            hash += (value != null) ? value.hashCode() : 0;
+        }
+        sink += hash;
+    }
+
+    public static final class Result {
+        private final String label;
+        private final double nanosPerOp;
+        private final double bytesPerOp;
+
+        private Result(String label, double nanosPerOp, double bytesPerOp) {
+            this.label = label;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public double getNanosPerOp() {
+            return nanosPerOp;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s %10.0f ns/op %10.0f B/op", label, nanosPerOp, bytesPerOp);
+        }
+    }
+}